@@ -0,0 +1,82 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Encoder;
+import net.airvantage.proxysocket.core.v2.Tlv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of PP2_TYPE_CRC32C verification and generation, with a header padded
+ * (PP2_TYPE_NOOP) up to the given datagram size; 1472 fills a 1500 bytes IPv4 MTU.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class Crc32cBenchmark {
+
+    @Param({"64", "1472"})
+    public int size;
+
+    private byte[] packet;
+    private int headerLength;
+    private byte lengthHigh;
+    private byte lengthLow;
+    private final ProxyHeaderView view = new ProxyHeaderView();
+
+    @Setup
+    public void setup() {
+        packet = new byte[size];
+        int len = ProxyProtocolV2Encoder.writeIPv4(packet, 0, ProxyHeader.TransportProtocol.DGRAM,
+                0x0A000001, 0xC0A80001, 40000, 5683);
+        // Leave room for the NOOP and CRC32C TLV headers and the checksum
+        int padding = size - len - 3 - 7;
+        if (padding >= 0) {
+            ProxyProtocolV2Encoder.appendTlv(packet, 0, Tlv.PP2_TYPE_NOOP, new byte[padding], 0, padding);
+        }
+        lengthHigh = packet[14];
+        lengthLow = packet[15];
+        headerLength = ProxyProtocolV2Encoder.appendCrc32c(packet, 0);
+        ProxyProtocolV2Decoder.tryDecode(packet, 0, headerLength, view);
+    }
+
+    @Benchmark
+    public int decodeOnly() {
+        return ProxyProtocolV2Decoder.tryDecode(packet, 0, headerLength, view);
+    }
+
+    @Benchmark
+    public boolean decodeAndVerify() {
+        return ProxyProtocolV2Decoder.tryDecode(packet, 0, headerLength, view) >= 0
+            && ProxyProtocolV2Decoder.verifyCrc32c(view);
+    }
+
+    @Benchmark
+    public int generate() {
+        // Drop the previous CRC32C TLV by restoring the length field, then append it again
+        packet[14] = lengthHigh;
+        packet[15] = lengthLow;
+        return ProxyProtocolV2Encoder.appendCrc32c(packet, 0);
+    }
+}
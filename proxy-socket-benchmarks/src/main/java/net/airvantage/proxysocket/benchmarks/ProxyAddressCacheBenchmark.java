@@ -0,0 +1,101 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.guava.GuavaProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client to load balancer mapping under contention: receiving threads put on every
+ * datagram while sending threads look the mapping up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class ProxyAddressCacheBenchmark {
+    private static final int CLIENTS = 4096;
+
+    @Param({"concurrentMap", "guava"})
+    public String implementation;
+
+    private ProxyAddressCache cache;
+    private InetSocketAddress[] clients;
+    private InetSocketAddress[] balancers;
+
+    @Setup
+    public void setup() {
+        cache = implementation.equals("guava")
+            ? new GuavaProxyAddressCache(10_000, Duration.ofMinutes(5))
+            : new ConcurrentMapProxyAddressCache();
+
+        SplittableRandom random = new SplittableRandom(42);
+        clients = new InetSocketAddress[CLIENTS];
+        balancers = new InetSocketAddress[4];
+        for (int i = 0; i < balancers.length; i++) {
+            balancers[i] = new InetSocketAddress("192.168.0." + (i + 1), 5683);
+        }
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = new InetSocketAddress("10.0." + (i >> 8) + "." + (i & 0xFF), 1024 + random.nextInt(60000));
+            cache.put(clients[i], balancers[i % balancers.length]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        // Distinct but reproducible key sequence per thread
+        private static final AtomicLong SEEDS = new AtomicLong(7);
+        private final SplittableRandom random = new SplittableRandom(SEEDS.getAndIncrement());
+
+        int next() {
+            return random.nextInt(CLIENTS);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void put(Cursor cursor) {
+        int i = cursor.next();
+        cache.put(clients[i], balancers[i % balancers.length]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public InetSocketAddress get(Cursor cursor) {
+        return cache.get(clients[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public InetSocketAddress getOnly(Cursor cursor) {
+        return cache.get(clients[cursor.next()]);
+    }
+}
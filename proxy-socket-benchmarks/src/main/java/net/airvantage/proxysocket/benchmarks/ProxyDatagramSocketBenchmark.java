@@ -0,0 +1,109 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Encoder;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.DecodedHeaderCache;
+import net.airvantage.proxysocket.tools.cache.InetSocketAddressPool;
+import net.airvantage.proxysocket.udp.ProxyDatagramSocket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loopback round trip through {@link ProxyDatagramSocket}: a plain socket playing the load
+ * balancer sends a proxied datagram, the proxy socket receives it, strips the header and
+ * replies to the real client, which the address cache maps back to the load balancer.
+ *
+ * <p>Only the loopback interface is used, so runs do not depend on the network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyDatagramSocketBenchmark {
+
+    /** Optional receive-side caches enabled on the proxy socket. */
+    @Param({"none", "addressPool", "headerCache"})
+    public String caches;
+
+    private ProxyDatagramSocket proxySocket;
+    private DatagramSocket balancer;
+
+    private DatagramPacket request;
+    private byte[] receiveBuffer;
+    private DatagramPacket received;
+    private DatagramPacket reply;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        proxySocket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0),
+            new ConcurrentMapProxyAddressCache(), null, null);
+        proxySocket.setSoTimeout(1000);
+        if (caches.equals("addressPool")) {
+            proxySocket.setAddressPool(new InetSocketAddressPool(1024));
+        } else if (caches.equals("headerCache")) {
+            proxySocket.setHeaderCache(new DecodedHeaderCache(1024, false));
+        }
+        balancer = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        balancer.setSoTimeout(1000);
+
+        byte[] header = new byte[ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH];
+        ProxyProtocolV2Encoder.writeIPv4(header, 0, ProxyHeader.TransportProtocol.DGRAM,
+            0x0A000001, 0x7F000001, 40000, proxySocket.getLocalPort());
+        byte[] data = SamplePackets.withPayload(header, header.length);
+        request = new DatagramPacket(data, data.length, proxySocket.getLocalSocketAddress());
+
+        receiveBuffer = new byte[2048];
+        received = new DatagramPacket(receiveBuffer, receiveBuffer.length);
+        reply = new DatagramPacket(new byte[SamplePackets.PAYLOAD_LENGTH], SamplePackets.PAYLOAD_LENGTH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxySocket.close();
+        balancer.close();
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException {
+        balancer.send(request);
+
+        // receive() narrows the packet to the payload; restore the full buffer
+        received.setData(receiveBuffer, 0, receiveBuffer.length);
+        proxySocket.receive(received);
+
+        reply.setData(received.getData(), received.getOffset(), received.getLength());
+        reply.setSocketAddress(received.getSocketAddress());
+        proxySocket.send(reply);
+
+        received.setData(receiveBuffer, 0, receiveBuffer.length);
+        balancer.receive(received);
+        return received.getLength();
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import net.airvantage.proxysocket.udp.ProxyDatagramSocket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated replies to the same client through {@link ProxyDatagramSocket#send(DatagramPacket)},
+ * with the last client mapping remembered ("memoized") or looked up in the address cache on
+ * every send ("lookup", with an {@link UntrackedAddressCache}).
+ *
+ * <p>The load balancer socket is never drained: once its buffer is full, the kernel drops
+ * the datagrams, which keeps the send path identical without a receive per operation. The
+ * cache holds many other clients, so that the lookup is not served from a tiny table.
+ *
+ * <p>The system call dominates this measurement; {@code ProxyHeaderProcessorBenchmark}
+ * isolates the address resolution itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyDatagramSocketSendBenchmark {
+
+    @Param({"memoized", "lookup"})
+    public String mode;
+
+    @Param({"100000"})
+    public int clients;
+
+    private ProxyDatagramSocket proxySocket;
+    private DatagramSocket balancer;
+    private DatagramPacket reply;
+    private InetSocketAddress client;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        balancer = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        InetSocketAddress lb = (InetSocketAddress) balancer.getLocalSocketAddress();
+
+        ProxyAddressCache cache = mode.equals("memoized") ? new ConcurrentMapProxyAddressCache() : new UntrackedAddressCache();
+        for (int i = 0; i < clients; i++) {
+            cache.put(new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, (byte) (i >> 16), (byte) (i >> 8), (byte) i}), 40000), lb);
+        }
+        client = new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 40000);
+
+        proxySocket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), cache, null, null);
+        reply = new DatagramPacket(new byte[SamplePackets.PAYLOAD_LENGTH], SamplePackets.PAYLOAD_LENGTH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxySocket.close();
+        balancer.close();
+    }
+
+    @Benchmark
+    public void send() throws IOException {
+        // send() rewrites the destination to the load balancer
+        reply.setSocketAddress(client);
+        proxySocket.send(reply);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v1.ProxyProtocolV1Decoder;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v1 text header decoding, allocating and into a reusable view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyProtocolV1DecoderBenchmark {
+
+    @Param({
+        "PROXY TCP4 192.168.0.1 192.168.0.11 56324 443\r\n",
+        "PROXY TCP6 2001:db8::1 2001:db8::2 56324 443\r\n",
+        "PROXY UNKNOWN\r\n"
+    })
+    public String header;
+
+    private byte[] packet;
+    private final ProxyHeaderView view = new ProxyHeaderView();
+
+    @Setup
+    public void setup() {
+        byte[] h = header.getBytes(StandardCharsets.US_ASCII);
+        packet = SamplePackets.withPayload(h, h.length);
+    }
+
+    @Benchmark
+    public ProxyHeader parse() throws ProxyProtocolParseException {
+        return ProxyProtocolV1Decoder.parse(packet, 0, packet.length);
+    }
+
+    @Benchmark
+    public int tryDecodeView() {
+        return ProxyProtocolV1Decoder.tryDecode(packet, 0, packet.length, view);
+    }
+}
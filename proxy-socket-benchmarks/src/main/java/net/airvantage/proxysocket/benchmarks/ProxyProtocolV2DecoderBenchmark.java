@@ -0,0 +1,132 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.DecodeBatch;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v2 decoding of one datagram, through every entry point: allocating parse over byte[],
+ * heap and direct buffers, view decoding, and batch decoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyProtocolV2DecoderBenchmark {
+    private static final int BATCH_SIZE = 32;
+
+    @Param({"IPV4", "IPV6", "LOCAL", "TLVS", "INVALID"})
+    public SamplePackets.Kind kind;
+
+    private byte[] packet;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+    private final ProxyHeaderView view = new ProxyHeaderView();
+
+    private byte[][] batchBuffers;
+    private int[] batchOffsets;
+    private int[] batchLengths;
+    private final DecodeBatch batch = new DecodeBatch(BATCH_SIZE);
+
+    @Setup
+    public void setup() {
+        packet = SamplePackets.v2(kind);
+        heap = ByteBuffer.wrap(packet.clone());
+        direct = ByteBuffer.allocateDirect(packet.length);
+        direct.put(packet).flip();
+
+        batchBuffers = new byte[BATCH_SIZE][];
+        batchOffsets = new int[BATCH_SIZE];
+        batchLengths = new int[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchBuffers[i] = packet.clone();
+            batchLengths[i] = packet.length;
+        }
+    }
+
+    @Benchmark
+    public ProxyHeader parseArray() {
+        try {
+            return ProxyProtocolV2Decoder.parse(packet, 0, packet.length);
+        } catch (ProxyProtocolParseException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public ProxyHeader parseArrayWithTlvs() {
+        try {
+            return ProxyProtocolV2Decoder.parse(packet, 0, packet.length, true);
+        } catch (ProxyProtocolParseException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public ProxyHeader parseHeapBuffer() {
+        try {
+            return ProxyProtocolV2Decoder.parse(heap);
+        } catch (ProxyProtocolParseException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public ProxyHeader parseDirectBuffer() {
+        try {
+            return ProxyProtocolV2Decoder.parse(direct);
+        } catch (ProxyProtocolParseException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public int tryDecodeView() {
+        return ProxyProtocolV2Decoder.tryDecode(packet, 0, packet.length, view);
+    }
+
+    @Benchmark
+    public int tryDecodeDirectView() {
+        return ProxyProtocolV2Decoder.tryDecode(direct, view);
+    }
+
+    @Benchmark
+    public int decodeSourceOnly() {
+        return ProxyProtocolV2Decoder.decodeSourceOnly(packet, 0, packet.length, view);
+    }
+
+    @Benchmark
+    public int headerLength() {
+        return ProxyProtocolV2Decoder.headerLength(packet, 0, packet.length);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int parseBatch() {
+        return ProxyProtocolV2Decoder.parseBatch(batchBuffers, batchOffsets, batchLengths, BATCH_SIZE, batch);
+    }
+}
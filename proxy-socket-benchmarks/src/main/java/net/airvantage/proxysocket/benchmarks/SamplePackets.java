@@ -0,0 +1,63 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Encoder;
+import net.airvantage.proxysocket.core.v2.Tlv;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Deterministic sample datagrams shared by the benchmarks, so that runs are comparable
+ * across machines and releases.
+ */
+public final class SamplePackets {
+    static final int PAYLOAD_LENGTH = 64;
+
+    public enum Kind { IPV4, IPV6, LOCAL, TLVS, INVALID }
+
+    private SamplePackets() {}
+
+    /**
+     * @return a v2 header of the given kind followed by a {@link #PAYLOAD_LENGTH} bytes payload
+     */
+    static byte[] v2(Kind kind) {
+        byte[] out = new byte[512 + PAYLOAD_LENGTH];
+        int len = switch (kind) {
+            case IPV4 -> ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM,
+                    0x0A000001, 0xC0A80001, 40000, 5683);
+            case IPV6 -> ProxyProtocolV2Encoder.writeIPv6(out, 0, ProxyHeader.TransportProtocol.DGRAM,
+                    0x20010DB800000000L, 1L, 0x20010DB800000000L, 2L, 40000, 5683);
+            case LOCAL -> ProxyProtocolV2Encoder.writeLocal(out, 0);
+            case TLVS -> {
+                ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM,
+                        0x0A000001, 0xC0A80001, 40000, 5683);
+                byte[] vpce = "\u0001vpce-08d2bf15fac5001c9".getBytes(StandardCharsets.US_ASCII);
+                ProxyProtocolV2Encoder.appendTlv(out, 0, Tlv.PP2_TYPE_AWS, vpce, 0, vpce.length);
+                byte[] authority = "device.example.com".getBytes(StandardCharsets.US_ASCII);
+                ProxyProtocolV2Encoder.appendTlv(out, 0, Tlv.PP2_TYPE_AUTHORITY, authority, 0, authority.length);
+                yield ProxyProtocolV2Encoder.appendTlv(out, 0, Tlv.PP2_TYPE_NOOP, new byte[8], 0, 8);
+            }
+            case INVALID -> {
+                // Valid signature, but an address block longer than the datagram
+                int l = ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM,
+                        0x0A000001, 0xC0A80001, 40000, 5683);
+                out[14] = (byte) 0x7F;
+                yield l;
+            }
+        };
+        return withPayload(out, len);
+    }
+
+    static byte[] withPayload(byte[] header, int headerLength) {
+        byte[] packet = Arrays.copyOf(header, headerLength + PAYLOAD_LENGTH);
+        for (int i = headerLength; i < packet.length; i++) {
+            packet[i] = (byte) i;
+        }
+        return packet;
+    }
+}
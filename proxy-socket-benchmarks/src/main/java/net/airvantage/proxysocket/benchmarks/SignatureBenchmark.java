@@ -0,0 +1,77 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyProtocolDecoder;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature check on matching (proxied) and non-matching (direct client) datagrams.
+ *
+ * <p>{@code byteLoop} is the byte-by-byte comparison the v2 decoder used to perform, kept
+ * as the baseline for the word-wide check behind {@code detect} and {@code headerLength}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SignatureBenchmark {
+    private static final byte[] SIGNATURE = {
+        0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A
+    };
+
+    @Param({"true", "false"})
+    public boolean proxied;
+
+    private byte[] packet;
+
+    @Setup
+    public void setup() {
+        packet = proxied ? SamplePackets.v2(SamplePackets.Kind.IPV4) : SamplePackets.withPayload(new byte[0], 0);
+        if (!proxied) {
+            // Differ at the last signature byte, the worst case for a byte loop
+            System.arraycopy(SIGNATURE, 0, packet, 0, SIGNATURE.length - 1);
+        }
+    }
+
+    @Benchmark
+    public boolean byteLoop() {
+        if (packet.length < SIGNATURE.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < SIGNATURE.length; i++) {
+            if (packet[i] != SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return (packet[SIGNATURE.length] & 0xF0) == 0x20;
+    }
+
+    @Benchmark
+    public ProxyProtocolDecoder.Version detect() {
+        return ProxyProtocolDecoder.detect(packet, 0, packet.length);
+    }
+
+    @Benchmark
+    public int headerLength() {
+        return ProxyProtocolV2Decoder.headerLength(packet, 0, packet.length);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.tools.SubnetPredicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Trusted proxy check, run once per received datagram.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SubnetPredicateBenchmark {
+    private final Predicate<InetSocketAddress> ipv4 = new SubnetPredicate("10.0.0.0/8");
+    private final Predicate<InetSocketAddress> ipv6 = new SubnetPredicate("2001:db8::/32");
+    private final Predicate<InetSocketAddress> chain = new SubnetPredicate("192.168.0.0/16")
+        .or(new SubnetPredicate("172.16.0.0/12"))
+        .or(new SubnetPredicate("10.0.0.0/8"));
+
+    private final InetSocketAddress ipv4Inside = new InetSocketAddress("10.1.2.3", 40000);
+    private final InetSocketAddress ipv4Outside = new InetSocketAddress("11.1.2.3", 40000);
+    private final InetSocketAddress ipv6Inside = new InetSocketAddress("2001:db8::1", 40000);
+
+    @Benchmark
+    public boolean ipv4Match() {
+        return ipv4.test(ipv4Inside);
+    }
+
+    @Benchmark
+    public boolean ipv4Miss() {
+        return ipv4.test(ipv4Outside);
+    }
+
+    @Benchmark
+    public boolean ipv6Match() {
+        return ipv6.test(ipv6Inside);
+    }
+
+    @Benchmark
+    public boolean familyMismatch() {
+        return ipv6.test(ipv4Inside);
+    }
+
+    @Benchmark
+    public boolean chainLastMatch() {
+        return chain.test(ipv4Inside);
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.benchmarks;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+
+import java.net.InetSocketAddress;
+
+/**
+ * {@link ConcurrentMapProxyAddressCache} hiding its {@link ProxyAddressCache#version() version},
+ * so that sockets query it on every send, as they do with caches not tracking changes.
+ */
+public final class UntrackedAddressCache implements ProxyAddressCache {
+    private final ProxyAddressCache delegate = new ConcurrentMapProxyAddressCache();
+
+    @Override
+    public void put(InetSocketAddress clientAddr, InetSocketAddress proxyAddr) {
+        delegate.put(clientAddr, proxyAddr);
+    }
+
+    @Override
+    public InetSocketAddress get(InetSocketAddress clientAddr) {
+        return delegate.get(clientAddr);
+    }
+
+    @Override
+    public void invalidate(InetSocketAddress clientAddr) {
+        delegate.invalidate(clientAddr);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.benchmarks.UntrackedAddressCache;
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send-side address resolution of {@link ProxyHeaderProcessor}, without the system call that
+ * dominates {@code ProxyDatagramSocketSendBenchmark}: replying to the client just received
+ * from, with the last mapping remembered ("memoized") or looked up in the address cache
+ * ("lookup").
+ *
+ * <p>Lives in the udp package to reach the package-private processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyHeaderProcessorBenchmark {
+
+    @Param({"memoized", "lookup"})
+    public String mode;
+
+    @Param({"100000"})
+    public int clients;
+
+    private ProxyHeaderProcessor processor;
+    private InetSocketAddress client;
+
+    @Setup
+    public void setup() throws UnknownHostException {
+        InetSocketAddress lb = new InetSocketAddress(InetAddress.getLoopbackAddress(), 5683);
+        ProxyAddressCache cache = mode.equals("memoized") ? new ConcurrentMapProxyAddressCache() : new UntrackedAddressCache();
+        for (int i = 0; i < clients; i++) {
+            cache.put(new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, (byte) (i >> 16), (byte) (i >> 8), (byte) i}), 40000), lb);
+        }
+        client = new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 40000);
+        processor = new ProxyHeaderProcessor(LoggerFactory.getLogger(ProxyDatagramSocket.class), cache, null, null, null);
+    }
+
+    @Benchmark
+    public InetSocketAddress resolve() {
+        return processor.resolve(client);
+    }
+}
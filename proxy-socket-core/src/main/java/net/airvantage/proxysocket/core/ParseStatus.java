@@ -0,0 +1,48 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core;
+
+/**
+ * Status codes returned by the non-allocating decoding entry points.
+ * A non-negative result is a header length; a negative one is one of the codes below.
+ */
+public final class ParseStatus {
+    private ParseStatus() {}
+
+    public static final int INVALID_SIGNATURE = -1;
+    public static final int TRUNCATED = -2;
+    public static final int INVALID_VERSION = -3;
+    public static final int INVALID_COMMAND = -4;
+    public static final int INVALID_ADDRESS_FAMILY = -5;
+    public static final int INVALID_TRANSPORT_PROTOCOL = -6;
+    public static final int TRUNCATED_ADDRESS = -7;
+    public static final int TRUNCATED_TLV = -8;
+    public static final int INVALID_FORMAT = -9;
+    public static final int INVALID_ADDRESS = -10;
+    public static final int CHECKSUM_MISMATCH = -11;
+    public static final int OTHER = -31;
+
+    public static boolean isError(int status) {
+        return status < 0;
+    }
+
+    public static String message(int status) {
+        return switch (status) {
+            case INVALID_SIGNATURE -> "Invalid signature";
+            case TRUNCATED -> "Insufficient data for header";
+            case INVALID_VERSION -> "Invalid version";
+            case INVALID_COMMAND -> "Invalid command";
+            case INVALID_ADDRESS_FAMILY -> "Invalid address family";
+            case INVALID_TRANSPORT_PROTOCOL -> "Invalid transport protocol";
+            case TRUNCATED_ADDRESS -> "Truncated address block in header";
+            case TRUNCATED_TLV -> "Truncated TLV in header";
+            case INVALID_FORMAT -> "Malformed v1 header line";
+            case INVALID_ADDRESS -> "Invalid address or port in v1 header";
+            case CHECKSUM_MISMATCH -> "CRC32C checksum mismatch";
+            case OTHER -> "Parse error";
+            default -> status >= 0 ? "OK" : "Unknown status " + status;
+        };
+    }
+}
@@ -14,4 +14,15 @@ public interface ProxyAddressCache {
     InetSocketAddress get(InetSocketAddress clientAddr);
     void invalidate(InetSocketAddress clientAddr);
     void clear();
+
+    /**
+     * Change counter, incremented whenever an existing mapping is replaced by a different one
+     * or removed, for any reason. Callers may memoize a lookup for as long as it is unchanged;
+     * it must be read before the lookup.
+     *
+     * @return the current version, or -1 if changes are not tracked, which disables memoization
+     */
+    default long version() {
+        return -1;
+    }
 }
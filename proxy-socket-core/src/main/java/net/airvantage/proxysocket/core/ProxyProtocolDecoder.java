@@ -0,0 +1,165 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core;
+
+import net.airvantage.proxysocket.core.v1.ProxyProtocolV1Decoder;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Version-agnostic entry point for listeners receiving a mix of v1, v2 and direct traffic.
+ *
+ * <p>{@link #detect(byte[], int, int)} sniffs the leading bytes without decoding anything,
+ * so direct (non-proxied) traffic is recognized on its first byte in most cases. The
+ * decoding methods then dispatch to {@link ProxyProtocolV1Decoder} or
+ * {@link ProxyProtocolV2Decoder}; none of them throws for a missing header.
+ *
+ * <p>When fewer bytes than a full signature are available, only the available bytes are
+ * compared, so a partially received stream header is already reported as V1 or V2. A
+ * datagram, on the other hand, is complete as received: the {@code complete} variants
+ * require the whole signature, so that a short payload which merely starts like one
+ * (e.g. a lone 'P' or CR) is reported as NONE rather than as a truncated header.
+ */
+public final class ProxyProtocolDecoder {
+    private ProxyProtocolDecoder() {}
+
+    public enum Version { V1, V2, NONE }
+
+    private static final byte[] V1_PREFIX = {'P', 'R', 'O', 'X', 'Y', ' '};
+    private static final byte[] V2_SIGNATURE = {0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A};
+
+    public static Version detect(byte[] data, int offset, int length) throws IllegalArgumentException {
+        return detect(data, offset, length, false);
+    }
+
+    /**
+     * @param complete true if no more bytes will follow, as for a datagram; a partial
+     *                 signature is then reported as NONE
+     */
+    public static Version detect(byte[] data, int offset, int length, boolean complete) throws IllegalArgumentException {
+        checkArguments(data, offset, length);
+        return detect(data, null, offset, length, complete);
+    }
+
+    /**
+     * Same as {@link #detect(byte[], int, int)} for the bytes between the buffer position and
+     * its limit. The buffer position is left untouched.
+     */
+    public static Version detect(ByteBuffer buffer) throws IllegalArgumentException {
+        return detect(buffer, false);
+    }
+
+    /**
+     * Same as {@link #detect(byte[], int, int, boolean)} for the bytes between the buffer
+     * position and its limit. The buffer position is left untouched.
+     */
+    public static Version detect(ByteBuffer buffer, boolean complete) throws IllegalArgumentException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return buffer.hasArray()
+            ? detect(buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining(), complete)
+            : detect(null, buffer, buffer.position(), buffer.remaining(), complete);
+    }
+
+    /**
+     * Detects the header version and decodes it into a reusable view.
+     *
+     * @return the header length, 0 if the data does not start with a Proxy Protocol header,
+     *         or a negative {@link ParseStatus} code for a malformed or truncated header
+     */
+    public static int tryDecode(byte[] data, int offset, int length, ProxyHeaderView view) throws IllegalArgumentException {
+        return tryDecode(data, offset, length, view, false);
+    }
+
+    /**
+     * @param complete true if no more bytes will follow, as for a datagram; a partial
+     *                 signature is then reported as 0 rather than as a truncated header
+     */
+    public static int tryDecode(byte[] data, int offset, int length, ProxyHeaderView view, boolean complete) throws IllegalArgumentException {
+        return switch (detect(data, offset, length, complete)) {
+            case V1 -> ProxyProtocolV1Decoder.tryDecode(data, offset, length, view);
+            case V2 -> ProxyProtocolV2Decoder.tryDecode(data, offset, length, view);
+            case NONE -> 0;
+        };
+    }
+
+    /**
+     * Same as {@link #tryDecode(byte[], int, int, ProxyHeaderView)} for the bytes between the
+     * buffer position and its limit. The buffer position is left untouched.
+     */
+    public static int tryDecode(ByteBuffer buffer, ProxyHeaderView view) throws IllegalArgumentException {
+        return tryDecode(buffer, view, false);
+    }
+
+    /**
+     * Same as {@link #tryDecode(byte[], int, int, ProxyHeaderView, boolean)} for the bytes
+     * between the buffer position and its limit. The buffer position is left untouched.
+     */
+    public static int tryDecode(ByteBuffer buffer, ProxyHeaderView view, boolean complete) throws IllegalArgumentException {
+        return switch (detect(buffer, complete)) {
+            case V1 -> ProxyProtocolV1Decoder.tryDecode(buffer, view);
+            case V2 -> ProxyProtocolV2Decoder.tryDecode(buffer, view);
+            case NONE -> 0;
+        };
+    }
+
+    /**
+     * @return the decoded header, or null if the data does not start with a Proxy Protocol header
+     * @throws ProxyProtocolParseException if a header is present but malformed or truncated
+     */
+    public static ProxyHeader parse(byte[] data, int offset, int length) throws ProxyProtocolParseException, IllegalArgumentException {
+        return switch (detect(data, offset, length)) {
+            case V1 -> ProxyProtocolV1Decoder.parse(data, offset, length);
+            case V2 -> ProxyProtocolV2Decoder.parse(data, offset, length);
+            case NONE -> null;
+        };
+    }
+
+    private static void checkArguments(byte[] data, int offset, int length) {
+        if (data == null || offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+
+        if (offset > data.length - length) {
+            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        }
+    }
+
+    // Exactly one of data/buffer is non-null; offsets are absolute indexes into it.
+    private static Version detect(byte[] data, ByteBuffer buffer, int offset, int length, boolean complete) {
+        if (length == 0) {
+            return Version.NONE;
+        }
+        int first = u8(data, buffer, offset);
+        if (first == V2_SIGNATURE[0]) {
+            return startsWith(data, buffer, offset, length, V2_SIGNATURE, complete) ? Version.V2 : Version.NONE;
+        }
+        if (first == V1_PREFIX[0]) {
+            return startsWith(data, buffer, offset, length, V1_PREFIX, complete) ? Version.V1 : Version.NONE;
+        }
+        return Version.NONE;
+    }
+
+    private static boolean startsWith(byte[] data, ByteBuffer buffer, int offset, int length, byte[] prefix, boolean complete) {
+        if (complete && length < prefix.length) {
+            return false;
+        }
+        int n = Math.min(length, prefix.length);
+        for (int i = 1; i < n; i++) {
+            if (u8(data, buffer, offset + i) != (prefix[i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u8(byte[] data, ByteBuffer buffer, int index) {
+        return (data != null ? data[index] : buffer.get(index)) & 0xFF;
+    }
+}
@@ -13,4 +13,7 @@ public class ProxyProtocolException extends Exception {
     public ProxyProtocolException(String message, Throwable cause) {
         super(message, cause);
     }
+    protected ProxyProtocolException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, writableStackTrace, writableStackTrace);
+    }
 }
@@ -7,10 +7,44 @@ package net.airvantage.proxysocket.core;
 public final class ProxyProtocolParseException extends ProxyProtocolException {
     private static final long serialVersionUID = 1L;
 
+    // Preallocated stackless instances, indexed by -status.
+    private static final ProxyProtocolParseException[] SHARED = new ProxyProtocolParseException[32];
+    static {
+        for (int i = 1; i < SHARED.length; i++) {
+            SHARED[i] = new ProxyProtocolParseException(-i, ParseStatus.message(-i), false);
+        }
+    }
+
+    private final int status;
+
     public ProxyProtocolParseException(String message) {
         super(message);
+        this.status = ParseStatus.OTHER;
     }
     public ProxyProtocolParseException(String message, Throwable cause) {
         super(message, cause);
+        this.status = ParseStatus.OTHER;
+    }
+    private ProxyProtocolParseException(int status, String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace);
+        this.status = status;
+    }
+
+    /**
+     * Returns the shared exception for a {@link ParseStatus} error code. Shared instances carry
+     * no stack trace and no suppressed exceptions, so throwing them costs no more than a return.
+     */
+    public static ProxyProtocolParseException of(int status) {
+        if (status < 0 && -status < SHARED.length) {
+            return SHARED[-status];
+        }
+        return new ProxyProtocolParseException(status, ParseStatus.message(status), false);
+    }
+
+    /**
+     * @return the {@link ParseStatus} code of this error, {@link ParseStatus#OTHER} if unspecified
+     */
+    public int getStatus() {
+        return status;
     }
 }
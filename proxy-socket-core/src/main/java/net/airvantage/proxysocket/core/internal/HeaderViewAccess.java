@@ -0,0 +1,67 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.internal;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.Command;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+
+/**
+ * Write access to {@link ProxyHeaderView} for the decoders living outside of its package,
+ * such as the v1 text decoder, so that the view itself only exposes read accessors.
+ *
+ * <p>This package is internal: it is not part of the public API and may change without
+ * notice. The only implementation is installed by {@link ProxyHeaderView} when it is loaded.
+ *
+ * Thread-safety: This class is thread-safe; the view passed to each method is not.
+ */
+public abstract class HeaderViewAccess {
+    private static volatile HeaderViewAccess instance;
+
+    protected HeaderViewAccess() {
+    }
+
+    /**
+     * Installs the implementation; called once by {@link ProxyHeaderView}.
+     *
+     * @throws IllegalStateException if an implementation is already installed
+     */
+    public static synchronized void install(HeaderViewAccess access) {
+        if (instance != null) {
+            throw new IllegalStateException("Header view access already installed");
+        }
+        instance = access;
+    }
+
+    /**
+     * @return the implementation, loading {@link ProxyHeaderView} first if needed
+     */
+    public static HeaderViewAccess get() {
+        HeaderViewAccess access = instance;
+        if (access == null) {
+            try {
+                Class.forName(ProxyHeaderView.class.getName(), true, ProxyHeaderView.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+            access = instance;
+        }
+        return access;
+    }
+
+    public abstract void setFixed(ProxyHeaderView view, Command command, AddressFamily family,
+                                  TransportProtocol protocol, int headerLength);
+
+    public abstract void setSourceIPv4(ProxyHeaderView view, int address);
+
+    public abstract void setDestinationIPv4(ProxyHeaderView view, int address);
+
+    public abstract void setSourceIPv6(ProxyHeaderView view, long high, long low);
+
+    public abstract void setDestinationIPv6(ProxyHeaderView view, long high, long low);
+
+    public abstract void setPorts(ProxyHeaderView view, int source, int destination);
+}
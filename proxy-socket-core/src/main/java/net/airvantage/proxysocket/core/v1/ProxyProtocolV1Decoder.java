@@ -0,0 +1,367 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v1;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.internal.HeaderViewAccess;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.Command;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Dependency-free Proxy Protocol v1 (human-readable) decoder.
+ *
+ * <p>Lines such as {@code PROXY TCP4 192.168.0.1 192.168.0.11 56324 443\r\n} are parsed
+ * directly from the bytes, without building any intermediate string, and mapped onto the
+ * same {@link ProxyHeader}/{@link ProxyHeaderView} model as v2 headers: command PROXY,
+ * family AF_INET or AF_INET6, protocol STREAM, no TLVs. {@code PROXY UNKNOWN} maps to
+ * AF_UNSPEC/UNSPEC with no addresses, whatever follows it on the line.
+ */
+public final class ProxyProtocolV1Decoder {
+    private ProxyProtocolV1Decoder() {}
+
+    /**
+     * Maximum length of a v1 header line, CRLF included (spec section 2.1).
+     */
+    public static final int MAX_HEADER_LENGTH = 107;
+
+    private static final HeaderViewAccess VIEWS = HeaderViewAccess.get();
+
+    private static final byte[] PREFIX = {'P', 'R', 'O', 'X', 'Y', ' '};
+    private static final byte[] TCP4 = {'T', 'C', 'P', '4'};
+    private static final byte[] TCP6 = {'T', 'C', 'P', '6'};
+    private static final byte[] UNKNOWN = {'U', 'N', 'K', 'N', 'O', 'W', 'N'};
+
+    public static ProxyHeader parse(byte[] data, int offset, int length) throws ProxyProtocolParseException, IllegalArgumentException {
+        ProxyHeaderView view = new ProxyHeaderView();
+        check(tryDecode(data, offset, length, view));
+        return view.toProxyHeader();
+    }
+
+    /**
+     * Parses a header located between the buffer position and its limit.
+     * The buffer position is left untouched.
+     */
+    public static ProxyHeader parse(ByteBuffer buffer) throws ProxyProtocolParseException, IllegalArgumentException {
+        ProxyHeaderView view = new ProxyHeaderView();
+        check(tryDecode(buffer, view));
+        return view.toProxyHeader();
+    }
+
+    /**
+     * Decodes a header line into a reusable view, without allocating.
+     *
+     * @param data packet or stream bytes
+     * @param offset start of the header in data
+     * @param length number of bytes available from offset
+     * @param view view to fill
+     * @return the header length (CRLF included), or a negative {@link ParseStatus} code;
+     *         {@link ParseStatus#TRUNCATED} means the line is not complete yet
+     */
+    public static int tryDecode(byte[] data, int offset, int length, ProxyHeaderView view) throws IllegalArgumentException {
+        if (data == null || view == null || offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (offset > data.length - length) {
+            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        }
+        return decode(data, null, offset, length, view);
+    }
+
+    /**
+     * Same as {@link #tryDecode(byte[], int, int, ProxyHeaderView)} for the bytes between the
+     * buffer position and its limit. The buffer position is left untouched.
+     */
+    public static int tryDecode(ByteBuffer buffer, ProxyHeaderView view) throws IllegalArgumentException {
+        if (buffer == null || view == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return buffer.hasArray()
+            ? decode(buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining(), view)
+            : decode(null, buffer, buffer.position(), buffer.remaining(), view);
+    }
+
+    private static int check(int status) throws ProxyProtocolParseException {
+        if (status < 0) {
+            throw ProxyProtocolParseException.of(status);
+        }
+        return status;
+    }
+
+    // Exactly one of data/buffer is non-null; offsets are absolute indexes into it.
+    private static int decode(byte[] data, ByteBuffer buffer, int offset, int length, ProxyHeaderView view) {
+        int prefixLength = Math.min(length, PREFIX.length);
+        for (int i = 0; i < prefixLength; i++) {
+            if (u8(data, buffer, offset + i) != PREFIX[i]) {
+                return ParseStatus.INVALID_SIGNATURE;
+            }
+        }
+        if (length < PREFIX.length) {
+            return ParseStatus.TRUNCATED;
+        }
+
+        // Locate CRLF, never looking further than the maximum line length
+        int limit = offset + Math.min(length, MAX_HEADER_LENGTH);
+        int eol = -1;
+        for (int i = offset + PREFIX.length; i < limit; i++) {
+            if (u8(data, buffer, i) == '\n') {
+                if (u8(data, buffer, i - 1) != '\r') {
+                    return ParseStatus.INVALID_FORMAT;
+                }
+                eol = i - 1;
+                break;
+            }
+        }
+        if (eol < 0) {
+            return length < MAX_HEADER_LENGTH ? ParseStatus.TRUNCATED : ParseStatus.INVALID_FORMAT;
+        }
+        int headerLen = eol + 2 - offset;
+
+        // Protocol token
+        int protoStart = offset + PREFIX.length;
+        int protoEnd = indexOfSpace(data, buffer, protoStart, eol);
+        view.reset();
+        if (equals(data, buffer, protoStart, protoEnd, UNKNOWN)) {
+            VIEWS.setFixed(view, Command.PROXY, AddressFamily.AF_UNSPEC, TransportProtocol.UNSPEC, headerLen);
+            return headerLen;
+        }
+        boolean ipv6;
+        if (equals(data, buffer, protoStart, protoEnd, TCP4)) {
+            ipv6 = false;
+        } else if (equals(data, buffer, protoStart, protoEnd, TCP6)) {
+            ipv6 = true;
+        } else {
+            return ParseStatus.INVALID_ADDRESS_FAMILY;
+        }
+
+        // Four single-space separated fields: source, destination, source port, destination port
+        int srcStart = protoEnd + 1;
+        int srcEnd = indexOfSpace(data, buffer, srcStart, eol);
+        int dstStart = srcEnd + 1;
+        int dstEnd = indexOfSpace(data, buffer, dstStart, eol);
+        int srcPortStart = dstEnd + 1;
+        int srcPortEnd = indexOfSpace(data, buffer, srcPortStart, eol);
+        int dstPortStart = srcPortEnd + 1;
+        if (dstPortStart > eol || indexOfSpace(data, buffer, dstPortStart, eol) != eol) {
+            return ParseStatus.INVALID_FORMAT;
+        }
+
+        VIEWS.setFixed(view, Command.PROXY, ipv6 ? AddressFamily.AF_INET6 : AddressFamily.AF_INET, TransportProtocol.STREAM, headerLen);
+        if (ipv6) {
+            if (!parseIPv6(data, buffer, srcStart, srcEnd, view, true)
+                || !parseIPv6(data, buffer, dstStart, dstEnd, view, false)) {
+                return ParseStatus.INVALID_ADDRESS;
+            }
+        } else {
+            long src = parseIPv4(data, buffer, srcStart, srcEnd);
+            long dst = parseIPv4(data, buffer, dstStart, dstEnd);
+            if (src < 0 || dst < 0) {
+                return ParseStatus.INVALID_ADDRESS;
+            }
+            VIEWS.setSourceIPv4(view, (int) src);
+            VIEWS.setDestinationIPv4(view, (int) dst);
+        }
+
+        int srcPort = parsePort(data, buffer, srcPortStart, srcPortEnd);
+        int dstPort = parsePort(data, buffer, dstPortStart, eol);
+        if (srcPort < 0 || dstPort < 0) {
+            return ParseStatus.INVALID_ADDRESS;
+        }
+        VIEWS.setPorts(view, srcPort, dstPort);
+        return headerLen;
+    }
+
+    /**
+     * @return the IPv4 address in [start, end) as an unsigned int, or -1 if malformed
+     */
+    private static long parseIPv4(byte[] data, ByteBuffer buffer, int start, int end) {
+        long address = 0;
+        int pos = start;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (pos >= end || u8(data, buffer, pos) != '.') {
+                    return -1;
+                }
+                pos++;
+            }
+            int value = 0;
+            int digits = 0;
+            while (pos < end && digits < 3) {
+                int c = u8(data, buffer, pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                pos++;
+            }
+            if (digits == 0 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+        }
+        return pos == end ? address : -1;
+    }
+
+    /**
+     * Parses the IPv6 address in [start, end) into the source or destination of the view,
+     * supporting "::" compression and a trailing dotted IPv4 part.
+     *
+     * @return false if malformed
+     */
+    private static boolean parseIPv6(byte[] data, ByteBuffer buffer, int start, int end, ProxyHeaderView view, boolean source) {
+        // Groups seen before "::" are accumulated in head, groups after it in tail.
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int pos = start;
+        if (end - start >= 2 && u8(data, buffer, pos) == ':' && u8(data, buffer, pos + 1) == ':') {
+            compressed = true;
+            pos += 2;
+        }
+        while (pos < end) {
+            int groupStart = pos;
+            int value = 0;
+            int digits = 0;
+            int h;
+            while (pos < end && (h = hex(u8(data, buffer, pos))) >= 0) {
+                value = (value << 4) | h;
+                digits++;
+                pos++;
+            }
+
+            int groups = 1;
+            if (pos < end && u8(data, buffer, pos) == '.') {
+                // Trailing dotted IPv4, e.g. ::ffff:192.168.0.1
+                long ipv4 = parseIPv4(data, buffer, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                value = (int) ipv4;
+                groups = 2;
+                pos = end;
+            } else if (digits == 0 || digits > 4) {
+                return false;
+            }
+
+            if (compressed) {
+                tailHigh = (tailHigh << (16 * groups)) | (tailLow >>> (64 - 16 * groups));
+                tailLow = (tailLow << (16 * groups)) | (value & 0xFFFFFFFFL);
+                tailGroups += groups;
+            } else {
+                headHigh = (headHigh << (16 * groups)) | (headLow >>> (64 - 16 * groups));
+                headLow = (headLow << (16 * groups)) | (value & 0xFFFFFFFFL);
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8) {
+                return false;
+            }
+
+            if (pos == end) {
+                break;
+            }
+            if (u8(data, buffer, pos) != ':') {
+                return false;
+            }
+            pos++;
+            if (pos < end && u8(data, buffer, pos) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                pos++;
+            } else if (pos == end) {
+                return false;
+            }
+        }
+
+        if (compressed ? headGroups + tailGroups > 7 : headGroups != 8) {
+            return false;
+        }
+
+        // Left-align the head groups, the zeros elided by "::" sit between head and tail
+        for (int i = headGroups; i < 8; i++) {
+            headHigh = (headHigh << 16) | (headLow >>> 48);
+            headLow <<= 16;
+        }
+        long high = headHigh | tailHigh;
+        long low = headLow | tailLow;
+        if (source) {
+            VIEWS.setSourceIPv6(view, high, low);
+        } else {
+            VIEWS.setDestinationIPv6(view, high, low);
+        }
+        return true;
+    }
+
+    /**
+     * @return the port in [start, end), or -1 if malformed
+     */
+    private static int parsePort(byte[] data, ByteBuffer buffer, int start, int end) {
+        if (start >= end || end - start > 5) {
+            return -1;
+        }
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            int c = u8(data, buffer, i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port <= 0xFFFF ? port : -1;
+    }
+
+    private static int hex(int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the first space in [start, end), or end if there is none
+     */
+    private static int indexOfSpace(byte[] data, ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (u8(data, buffer, i) == ' ') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static boolean equals(byte[] data, ByteBuffer buffer, int start, int end, byte[] token) {
+        if (end - start != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            if (u8(data, buffer, start + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u8(byte[] data, ByteBuffer buffer, int index) {
+        return (data != null ? data[index] : buffer.get(index)) & 0xFF;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.Command;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
+
+/**
+ * Reusable output of {@link ProxyProtocolV2Decoder#parseBatch(byte[][], int[], int[], int, DecodeBatch)},
+ * laid out as parallel primitive arrays indexed by packet.
+ *
+ * <p>The array accessors return the internal arrays themselves, so a consumer loop reads
+ * them without any call or copy per packet. Entries past the last decoded batch, or of a
+ * packet whose status is negative, are unspecified.
+ *
+ * Thread-safety: This class is not thread-safe; use one instance per receiving thread.
+ */
+public final class DecodeBatch {
+    private static final Command[] COMMANDS = Command.values();
+    private static final AddressFamily[] FAMILIES = AddressFamily.values();
+    private static final TransportProtocol[] PROTOCOLS = TransportProtocol.values();
+
+    private final int[] status;
+    private final byte[] command;
+    private final byte[] family;
+    private final byte[] protocol;
+    private final int[] sourceIPv4;
+    private final long[] sourceIPv6High;
+    private final long[] sourceIPv6Low;
+    private final int[] sourcePort;
+    private int size;
+
+    public DecodeBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.status = new int[capacity];
+        this.command = new byte[capacity];
+        this.family = new byte[capacity];
+        this.protocol = new byte[capacity];
+        this.sourceIPv4 = new int[capacity];
+        this.sourceIPv6High = new long[capacity];
+        this.sourceIPv6Low = new long[capacity];
+        this.sourcePort = new int[capacity];
+    }
+
+    public int capacity() { return status.length; }
+
+    /**
+     * @return number of packets of the last decoded batch
+     */
+    public int size() { return size; }
+
+    void setSize(int size) { this.size = size; }
+
+    /**
+     * @return per packet, the header length or a negative {@link net.airvantage.proxysocket.core.ParseStatus} code
+     */
+    public int[] status() { return status; }
+
+    /**
+     * @return per packet, the {@link Command} ordinal
+     */
+    public byte[] command() { return command; }
+
+    /**
+     * @return per packet, the {@link AddressFamily} ordinal
+     */
+    public byte[] family() { return family; }
+
+    /**
+     * @return per packet, the {@link TransportProtocol} ordinal
+     */
+    public byte[] protocol() { return protocol; }
+
+    /**
+     * @return per packet, the big-endian source IPv4 address (AF_INET only)
+     */
+    public int[] sourceIPv4() { return sourceIPv4; }
+
+    /**
+     * @return per packet, the high 64 bits of the source IPv6 address (AF_INET6 only)
+     */
+    public long[] sourceIPv6High() { return sourceIPv6High; }
+
+    /**
+     * @return per packet, the low 64 bits of the source IPv6 address (AF_INET6 only)
+     */
+    public long[] sourceIPv6Low() { return sourceIPv6Low; }
+
+    /**
+     * @return per packet, the source port (AF_INET and AF_INET6 only)
+     */
+    public int[] sourcePort() { return sourcePort; }
+
+    public Command getCommand(int index) { return COMMANDS[command[index]]; }
+    public AddressFamily getFamily(int index) { return FAMILIES[family[index]]; }
+    public TransportProtocol getProtocol(int index) { return PROTOCOLS[protocol[index]]; }
+
+    /**
+     * @return true if the packet was decoded as a PROXY header carrying a datagram flow
+     */
+    public boolean isProxyDatagram(int index) {
+        return status[index] >= 0 && command[index] == Command.PROXY.ordinal() && protocol[index] == TransportProtocol.DGRAM.ordinal();
+    }
+}
@@ -20,6 +20,8 @@ public final class ProxyHeader {
     private final InetSocketAddress destinationAddress;
     private final List<Tlv> tlvs;
     private final int headerLength;
+    // Created on first access; racy but benign since WellKnownTlvs is thread-safe
+    private WellKnownTlvs wellKnownTlvs;
 
     public ProxyHeader(Command command,
                        AddressFamily family,
@@ -45,6 +47,31 @@ public final class ProxyHeader {
     public List<Tlv> getTlvs() { return Collections.unmodifiableList(tlvs); }
     public int getHeaderLength() { return headerLength; }
 
+    /**
+     * @return the first TLV of the given type, or null if absent or TLVs were not parsed
+     */
+    public Tlv findTlv(int type) {
+        for (Tlv tlv : tlvs) {
+            if (tlv.getType() == type) {
+                return tlv;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the typed form of the well-known TLVs, each decoded on first access and cached.
+     * Only TLVs parsed along with the header are considered.
+     */
+    public WellKnownTlvs getWellKnownTlvs() {
+        WellKnownTlvs result = wellKnownTlvs;
+        if (result == null) {
+            result = WellKnownTlvs.of(tlvs);
+            wellKnownTlvs = result;
+        }
+        return result;
+    }
+
     public boolean isLocal() { return command == Command.LOCAL; }
     public boolean isProxy() { return command == Command.PROXY; }
 }
@@ -0,0 +1,290 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import net.airvantage.proxysocket.core.internal.HeaderViewAccess;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.Command;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reusable, mutable view of a Proxy Protocol header, filled in place by
+ * {@link ProxyProtocolV2Decoder#decode(byte[], int, int, ProxyHeaderView)} or by the v1
+ * text decoder. v1 headers carry no TLVs, so their TLV region is always empty.
+ *
+ * <p>Primitive accessors never allocate. Socket addresses are only built when
+ * {@link #getSourceAddress()} or {@link #getDestinationAddress()} is called, and a new
+ * instance is returned on each call. IPv4 addresses are exposed as a big-endian int,
+ * IPv6 addresses as two big-endian longs (high and low 64 bits).
+ *
+ * <p>The view keeps a reference to the buffer it was decoded from, so its content is
+ * only meaningful until that buffer is reused.
+ *
+ * Thread-safety: This class is not thread-safe; use one instance per receiving thread.
+ */
+public final class ProxyHeaderView {
+    static {
+        HeaderViewAccess.install(new HeaderViewAccess() {
+            @Override
+            public void setFixed(ProxyHeaderView view, Command command, AddressFamily family,
+                                 TransportProtocol protocol, int headerLength) {
+                view.setFixed(command, family, protocol, headerLength);
+            }
+
+            @Override
+            public void setSourceIPv4(ProxyHeaderView view, int address) {
+                view.setSourceIPv4(address);
+            }
+
+            @Override
+            public void setDestinationIPv4(ProxyHeaderView view, int address) {
+                view.setDestinationIPv4(address);
+            }
+
+            @Override
+            public void setSourceIPv6(ProxyHeaderView view, long high, long low) {
+                view.setSourceIPv6(high, low);
+            }
+
+            @Override
+            public void setDestinationIPv6(ProxyHeaderView view, long high, long low) {
+                view.setDestinationIPv6(high, low);
+            }
+
+            @Override
+            public void setPorts(ProxyHeaderView view, int source, int destination) {
+                view.setPorts(source, destination);
+            }
+        });
+    }
+
+    private Command command;
+    private AddressFamily family;
+    private TransportProtocol protocol;
+    private int headerLength;
+
+    private int sourceIPv4;
+    private int destinationIPv4;
+    private long sourceIPv6High;
+    private long sourceIPv6Low;
+    private long destinationIPv6High;
+    private long destinationIPv6Low;
+    private int sourcePort;
+    private int destinationPort;
+
+    // Backing storage of the decoded v2 header: at most one of array/buffer is set.
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int offset;
+    private int tlvOffset;
+    private int tlvEnd;
+    private TlvCursor cursor;
+    private WellKnownTlvs wellKnownTlvs;
+
+    public Command getCommand() { return command; }
+    public AddressFamily getFamily() { return family; }
+    public TransportProtocol getProtocol() { return protocol; }
+    public int getHeaderLength() { return headerLength; }
+
+    public int getSourceIPv4() { return sourceIPv4; }
+    public int getDestinationIPv4() { return destinationIPv4; }
+    public long getSourceIPv6High() { return sourceIPv6High; }
+    public long getSourceIPv6Low() { return sourceIPv6Low; }
+    public long getDestinationIPv6High() { return destinationIPv6High; }
+    public long getDestinationIPv6Low() { return destinationIPv6Low; }
+    public int getSourcePort() { return sourcePort; }
+    public int getDestinationPort() { return destinationPort; }
+
+    public boolean isLocal() { return command == Command.LOCAL; }
+    public boolean isProxy() { return command == Command.PROXY; }
+
+    /**
+     * @return true if the header carries IPv4 or IPv6 addresses
+     */
+    public boolean hasAddresses() {
+        return family == AddressFamily.AF_INET || family == AddressFamily.AF_INET6;
+    }
+
+    /**
+     * Builds the source socket address.
+     *
+     * @return a new socket address, or null if the header carries no IPv4/IPv6 address
+     */
+    public InetSocketAddress getSourceAddress() {
+        return toSocketAddress(sourceIPv4, sourceIPv6High, sourceIPv6Low, sourcePort);
+    }
+
+    /**
+     * Builds the destination socket address.
+     *
+     * @return a new socket address, or null if the header carries no IPv4/IPv6 address
+     */
+    public InetSocketAddress getDestinationAddress() {
+        return toSocketAddress(destinationIPv4, destinationIPv6High, destinationIPv6Low, destinationPort);
+    }
+
+    /**
+     * Returns the cursor of this view, rewound to the first TLV following the address block.
+     * The same cursor instance is returned on each call.
+     */
+    public TlvCursor tlvs() {
+        if (cursor == null) {
+            cursor = new TlvCursor();
+        }
+        return cursor.reset(this);
+    }
+
+    /**
+     * Looks up the first TLV of the given type, walking the packet in place.
+     *
+     * @return a read-only slice of the TLV value sharing the packet storage, or null if absent
+     */
+    public ByteBuffer findTlv(int type) {
+        TlvCursor c = tlvs();
+        return c.find(type) ? c.value() : null;
+    }
+
+    /**
+     * Returns the typed form of the well-known TLVs, cached until the view is filled again.
+     * Each TLV is decoded in place on first access to its accessor.
+     */
+    public WellKnownTlvs wellKnownTlvs() {
+        if (wellKnownTlvs == null) {
+            wellKnownTlvs = WellKnownTlvs.of(this);
+        }
+        return wellKnownTlvs;
+    }
+
+    /**
+     * Materializes an immutable {@link ProxyHeader} without TLVs.
+     */
+    public ProxyHeader toProxyHeader() {
+        return toProxyHeader(null);
+    }
+
+    ProxyHeader toProxyHeader(List<Tlv> tlvs) {
+        return new ProxyHeader(command, family, protocol, getSourceAddress(), getDestinationAddress(), tlvs, headerLength);
+    }
+
+    /**
+     * Clears the view, dropping the reference to the backing buffer.
+     */
+    public void reset() {
+        command = null;
+        family = null;
+        protocol = null;
+        headerLength = 0;
+        clearAddresses();
+        array = null;
+        buffer = null;
+        offset = 0;
+        tlvOffset = 0;
+        tlvEnd = 0;
+        wellKnownTlvs = null;
+    }
+
+    // ---- producer side, used by the decoders; other packages go through HeaderViewAccess ----
+
+    void setFixed(Command command, AddressFamily family, TransportProtocol protocol, int headerLength) {
+        this.command = command;
+        this.family = family;
+        this.protocol = protocol;
+        this.headerLength = headerLength;
+    }
+
+    void setSourceIPv4(int address) {
+        this.sourceIPv4 = address;
+        this.sourceIPv6High = 0;
+        this.sourceIPv6Low = 0;
+    }
+
+    void setDestinationIPv4(int address) {
+        this.destinationIPv4 = address;
+        this.destinationIPv6High = 0;
+        this.destinationIPv6Low = 0;
+    }
+
+    void setSourceIPv6(long high, long low) {
+        this.sourceIPv4 = 0;
+        this.sourceIPv6High = high;
+        this.sourceIPv6Low = low;
+    }
+
+    void setDestinationIPv6(long high, long low) {
+        this.destinationIPv4 = 0;
+        this.destinationIPv6High = high;
+        this.destinationIPv6Low = low;
+    }
+
+    void setPorts(int source, int destination) {
+        this.sourcePort = source;
+        this.destinationPort = destination;
+    }
+
+    void clearAddresses() {
+        setSourceIPv4(0);
+        setDestinationIPv4(0);
+        setPorts(0, 0);
+    }
+
+    void setBacking(byte[] array, ByteBuffer buffer, int offset) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    void setTlvRegion(int tlvOffset, int tlvEnd) {
+        this.tlvOffset = tlvOffset;
+        this.tlvEnd = tlvEnd;
+        this.wellKnownTlvs = null;
+    }
+
+    byte[] array() { return array; }
+    ByteBuffer buffer() { return buffer; }
+    int offset() { return offset; }
+    int tlvOffset() { return tlvOffset; }
+    int tlvEnd() { return tlvEnd; }
+
+    private InetSocketAddress toSocketAddress(int ipv4, long ipv6High, long ipv6Low, int port) {
+        byte[] raw;
+        if (family == AddressFamily.AF_INET) {
+            raw = new byte[4];
+            putInt(raw, 0, ipv4);
+        } else if (family == AddressFamily.AF_INET6) {
+            raw = new byte[16];
+            putInt(raw, 0, (int) (ipv6High >>> 32));
+            putInt(raw, 4, (int) ipv6High);
+            putInt(raw, 8, (int) (ipv6Low >>> 32));
+            putInt(raw, 12, (int) ipv6Low);
+        } else {
+            return null;
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getByAddress(raw), port);
+        } catch (UnknownHostException e) {
+            // Cannot happen: raw is always 4 or 16 bytes long
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void putInt(byte[] out, int index, int value) {
+        out[index] = (byte) (value >>> 24);
+        out[index + 1] = (byte) (value >>> 16);
+        out[index + 2] = (byte) (value >>> 8);
+        out[index + 3] = (byte) value;
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyHeaderView{" + "command=" + command + ", family=" + family + ", protocol=" + protocol
+            + ", headerLength=" + headerLength + '}';
+    }
+}
@@ -4,16 +4,19 @@
  */
 package net.airvantage.proxysocket.core.v2;
 
+import net.airvantage.proxysocket.core.ParseStatus;
 import net.airvantage.proxysocket.core.ProxyProtocolParseException;
 import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
 import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
 import net.airvantage.proxysocket.core.v2.ProxyHeader.Command;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.CRC32C;
 
 /**
  * Dependency-free Proxy Protocol v2 utilities (validate/parse/build).
@@ -21,194 +24,459 @@ import java.util.List;
 public final class ProxyProtocolV2Decoder {
     private ProxyProtocolV2Decoder() {}
 
-    private static final byte[] PROTOCOL_SIGNATURE = new byte[] {0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A};
-    private static final int PROTOCOL_SIGNATURE_FIXED_LENGTH = PROTOCOL_SIGNATURE.length + 4;
+    static final byte[] PROTOCOL_SIGNATURE = new byte[] {0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A};
+    static final int PROTOCOL_SIGNATURE_FIXED_LENGTH = PROTOCOL_SIGNATURE.length + 4;
     private static final int IPV4_ADDR_LEN = 4;
     private static final int IPV6_ADDR_LEN = 16;
     private static final int UNIX_ADDR_LEN = 216;
     private static final int PORT_LEN = 2;
-    private static final int TLV_HEADER_LEN = 3;
 
-    private record AddressPair(InetSocketAddress src, InetSocketAddress dst, int bytesConsumed) {}
+    private static final int IPV4_ADDR_PAIR_LEN = 2*(IPV4_ADDR_LEN + PORT_LEN);
+    private static final int IPV6_ADDR_PAIR_LEN = 2*(IPV6_ADDR_LEN + PORT_LEN);
+    private static final int UNIX_ADDR_PAIR_LEN = 2*UNIX_ADDR_LEN;
+
+    // Indexed by the raw nibbles of bytes 13 and 14, once validated.
+    private static final Command[] COMMANDS = {Command.LOCAL, Command.PROXY};
+    private static final AddressFamily[] FAMILIES = {AddressFamily.AF_UNSPEC, AddressFamily.AF_INET, AddressFamily.AF_INET6, AddressFamily.AF_UNIX};
+    private static final TransportProtocol[] PROTOCOLS = {TransportProtocol.UNSPEC, TransportProtocol.STREAM, TransportProtocol.DGRAM};
+    private static final int[] ADDR_PAIR_LENGTHS = {0, IPV4_ADDR_PAIR_LEN, IPV6_ADDR_PAIR_LEN, UNIX_ADDR_PAIR_LEN};
+
+    // The 16 fixed bytes are read as two big-endian words. The first one is signature bytes 0-7;
+    // the second one holds signature bytes 8-11, version/command, family/protocol and length.
+    // Masking the low bit of the command folds "version 2, command LOCAL or PROXY" into the
+    // signature comparison.
+    private static final long SIGNATURE_HEAD = 0x0D0A0D0A000D0A51L;
+    private static final long SIGNATURE_TAIL = 0x5549540A20000000L;
+    private static final long SIGNATURE_TAIL_MASK = 0xFFFFFFFFFE000000L;
+
+    private static final int CRC32C_LENGTH = 4;
+    private static final byte[] CRC32C_PLACEHOLDER = new byte[CRC32C_LENGTH];
+    private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+    private static final VarHandle ARRAY_SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle ARRAY_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
 
     public static ProxyHeader parse(byte[] data, int offset, int length) throws ProxyProtocolParseException, IllegalArgumentException {
         return parse(data, offset, length, false);
     }
 
     public static ProxyHeader parse(byte[] data, int offset, int length, boolean parseTlvs) throws ProxyProtocolParseException, IllegalArgumentException {
-        if (data == null || offset < 0 || length < 0) {
+        checkArguments(data, offset, length);
+        return parse(data, null, offset, length, parseTlvs);
+    }
+
+    public static ProxyHeader parse(ByteBuffer buffer) throws ProxyProtocolParseException, IllegalArgumentException {
+        return parse(buffer, false, false);
+    }
+
+    public static ProxyHeader parse(ByteBuffer buffer, boolean parseTlvs) throws ProxyProtocolParseException, IllegalArgumentException {
+        return parse(buffer, parseTlvs, false);
+    }
+
+    /**
+     * Parses a header located between the buffer position and its limit, without copying
+     * the buffer content. Heap buffers are decoded through their backing array, direct and
+     * read-only buffers through absolute gets.
+     *
+     * @param buffer buffer holding the header at its current position
+     * @param parseTlvs whether TLVs following the address block should be decoded
+     * @param consume if true, the buffer position is moved right after the header on success;
+     *                otherwise the position is left untouched
+     */
+    public static ProxyHeader parse(ByteBuffer buffer, boolean parseTlvs, boolean consume) throws ProxyProtocolParseException, IllegalArgumentException {
+        if (buffer == null) {
             throw new IllegalArgumentException("Invalid arguments");
         }
 
-        if ((length+offset) > data.length) {
-            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        int offset = buffer.position();
+        ProxyHeader header = buffer.hasArray()
+            ? parse(buffer.array(), null, buffer.arrayOffset() + offset, buffer.remaining(), parseTlvs)
+            : parse(null, buffer, offset, buffer.remaining(), parseTlvs);
+
+        if (consume) {
+            buffer.position(offset + header.getHeaderLength());
         }
+        return header;
+    }
 
-        if (PROTOCOL_SIGNATURE_FIXED_LENGTH > length) {
-            throw new ProxyProtocolParseException("Insufficient data for header");
+    /**
+     * Decodes a header in place into a reusable view, without building any address object.
+     *
+     * @param data packet bytes
+     * @param offset start of the header in data
+     * @param length number of bytes available from offset
+     * @param view view to fill; it keeps a reference to data for TLV access
+     * @return the header length, i.e. the number of bytes to strip
+     */
+    public static int decode(byte[] data, int offset, int length, ProxyHeaderView view) throws ProxyProtocolParseException, IllegalArgumentException {
+        return check(tryDecode(data, offset, length, view));
+    }
+
+    /**
+     * Decodes a header located between the buffer position and its limit into a reusable view.
+     * The buffer position is left untouched.
+     *
+     * @return the header length, i.e. the number of bytes to strip
+     */
+    public static int decode(ByteBuffer buffer, ProxyHeaderView view) throws ProxyProtocolParseException, IllegalArgumentException {
+        return check(tryDecode(buffer, view));
+    }
+
+    /**
+     * Non-throwing variant of {@link #decode(byte[], int, int, ProxyHeaderView)}, meant for hot
+     * paths exposed to junk traffic.
+     *
+     * @return the header length, or a negative {@link ParseStatus} code
+     */
+    public static int tryDecode(byte[] data, int offset, int length, ProxyHeaderView view) throws IllegalArgumentException {
+        checkArguments(data, offset, length);
+        if (view == null) {
+            throw new IllegalArgumentException("Invalid arguments");
         }
+        return decode(data, null, offset, length, view, false);
+    }
 
-        for (int i = 0; i < PROTOCOL_SIGNATURE.length; i++) {
-            if (data[offset + i] != PROTOCOL_SIGNATURE[i]) {
-                throw new ProxyProtocolParseException("Invalid signature");
-            }
+    /**
+     * Non-throwing variant of {@link #decode(ByteBuffer, ProxyHeaderView)}.
+     *
+     * @return the header length, or a negative {@link ParseStatus} code
+     */
+    public static int tryDecode(ByteBuffer buffer, ProxyHeaderView view) throws IllegalArgumentException {
+        if (buffer == null || view == null) {
+            throw new IllegalArgumentException("Invalid arguments");
         }
 
-        int pos = offset + PROTOCOL_SIGNATURE.length;
+        return buffer.hasArray()
+            ? decode(buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining(), view, false)
+            : decode(null, buffer, buffer.position(), buffer.remaining(), view, false);
+    }
 
-        // Byte 13: version/command
-        int verCmd = data[pos++] & 0xFF;
-        int version = (verCmd >> 4) & 0x0F;
-        int cmd = verCmd & 0x0F;
+    /**
+     * Strip-only fast path: validates the signature, version, command, family, protocol and
+     * length fields without decoding addresses or TLVs, and without allocating.
+     *
+     * @return the header length, i.e. the number of bytes to strip, or a negative
+     *         {@link ParseStatus} code
+     */
+    public static int headerLength(byte[] data, int offset, int length) throws IllegalArgumentException {
+        checkArguments(data, offset, length);
+        return headerLength(data, null, offset, length);
+    }
 
-        if (version != 2) {
-            throw new ProxyProtocolParseException("Invalid version");
+    /**
+     * Same as {@link #headerLength(byte[], int, int)} for the bytes between the buffer
+     * position and its limit. The buffer position is left untouched.
+     */
+    public static int headerLength(ByteBuffer buffer) throws IllegalArgumentException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Invalid arguments");
         }
+        return buffer.hasArray()
+            ? headerLength(buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining())
+            : headerLength(null, buffer, buffer.position(), buffer.remaining());
+    }
 
-        Command command = switch (cmd) {
-            case 0x00 -> Command.LOCAL;
-            case 0x01 -> Command.PROXY;
-            default -> throw new ProxyProtocolParseException("Invalid command");
-        };
-
-        // Byte 14: address family and protocol
-        int famProto = data[pos++] & 0xFF;
-        int fam = famProto & 0xF0;
-        int proto = famProto & 0x0F;
+    /**
+     * Strip-only variant of {@link #decode(byte[], int, int, ProxyHeaderView)} for callers that
+     * only need the source address: the destination address is left zeroed and nothing is thrown
+     * on malformed input.
+     *
+     * @return the header length, or a negative {@link ParseStatus} code
+     */
+    public static int decodeSourceOnly(byte[] data, int offset, int length, ProxyHeaderView view) throws IllegalArgumentException {
+        checkArguments(data, offset, length);
+        if (view == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return decode(data, null, offset, length, view, true);
+    }
 
-        AddressFamily af = parseAddressFamily(fam);
-        TransportProtocol tp = parseTransportProtocol(proto);
+    /**
+     * Decodes the headers of a batch of packets into parallel primitive arrays, without
+     * allocating or throwing for malformed packets. Only the source address is decoded.
+     * Array bounds are validated once for the whole batch.
+     *
+     * @param buffers packet storage, one array per packet
+     * @param offsets start of each packet in its array
+     * @param lengths length of each packet
+     * @param count number of packets to decode, from index 0
+     * @param out receives the per-packet results
+     * @return the number of packets whose header was successfully decoded
+     */
+    public static int parseBatch(byte[][] buffers, int[] offsets, int[] lengths, int count, DecodeBatch out) throws IllegalArgumentException {
+        if (buffers == null || offsets == null || lengths == null || out == null || count < 0
+            || count > buffers.length || count > offsets.length || count > lengths.length || count > out.capacity()) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
 
-        // Byte 15, 16: Length of address part of the header, including TLVs
-        int variableLength = ((data[pos++] & 0xFF) << 8) | (data[pos++] & 0xFF);
+        int[] status = out.status();
+        byte[] command = out.command();
+        byte[] family = out.family();
+        byte[] protocol = out.protocol();
+        int[] sourceIPv4 = out.sourceIPv4();
+        long[] sourceIPv6High = out.sourceIPv6High();
+        long[] sourceIPv6Low = out.sourceIPv6Low();
+        int[] sourcePort = out.sourcePort();
+
+        int decoded = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] data = buffers[i];
+            int offset = offsets[i];
+            int length = lengths[i];
+            if (data == null || offset < 0 || length < 0 || offset > data.length - length) {
+                status[i] = ParseStatus.OTHER;
+                continue;
+            }
 
-        // Check if we have enough data for the header
-        int headerLen = PROTOCOL_SIGNATURE_FIXED_LENGTH + variableLength;
-        if (headerLen > length) {
-            throw new ProxyProtocolParseException("Insufficient data for header");
+            int headerLen = headerLength(data, null, offset, length);
+            status[i] = headerLen;
+            if (headerLen < 0) {
+                continue;
+            }
+            decoded++;
+
+            // Raw nibbles match the enum ordinals
+            int famProto = data[offset + PROTOCOL_SIGNATURE.length + 1] & 0xFF;
+            int fam = famProto >> 4;
+            int pos = offset + PROTOCOL_SIGNATURE_FIXED_LENGTH;
+            command[i] = (byte) (data[offset + PROTOCOL_SIGNATURE.length] & 0x0F);
+            family[i] = (byte) fam;
+            protocol[i] = (byte) (famProto & 0x0F);
+            // Every source slot is written, so that a reused batch carries no stale values
+            if (FAMILIES[fam] == AddressFamily.AF_INET) {
+                sourceIPv4[i] = (int) ARRAY_INT.get(data, pos);
+                sourceIPv6High[i] = 0;
+                sourceIPv6Low[i] = 0;
+                sourcePort[i] = (short) ARRAY_SHORT.get(data, pos + 2*IPV4_ADDR_LEN) & 0xFFFF;
+            } else if (FAMILIES[fam] == AddressFamily.AF_INET6) {
+                sourceIPv4[i] = 0;
+                sourceIPv6High[i] = (long) ARRAY_LONG.get(data, pos);
+                sourceIPv6Low[i] = (long) ARRAY_LONG.get(data, pos + 8);
+                sourcePort[i] = (short) ARRAY_SHORT.get(data, pos + 2*IPV6_ADDR_LEN) & 0xFFFF;
+            } else {
+                sourceIPv4[i] = 0;
+                sourceIPv6High[i] = 0;
+                sourceIPv6Low[i] = 0;
+                sourcePort[i] = 0;
+            }
         }
+        out.setSize(count);
+        return decoded;
+    }
 
-        AddressPair addresses = null;
-        if (af != AddressFamily.AF_UNSPEC) {
-            addresses = switch (af) {
-                case AF_INET -> parseIPv4Addresses(data, pos, variableLength);
-                case AF_INET6 -> parseIPv6Addresses(data, pos, variableLength);
-                case AF_UNIX -> parseUnixAddresses(data, pos, variableLength);
-                default -> throw new ProxyProtocolParseException("Invalid address family");
-            };
-            pos += addresses.bytesConsumed;
+    /**
+     * Verifies the PP2_TYPE_CRC32C TLV of a decoded header, computing the checksum over the
+     * header bytes in place, with the checksum field itself read as zeros.
+     *
+     * @return true if the header carries no CRC32C TLV or if its checksum matches
+     */
+    public static boolean verifyCrc32c(ProxyHeaderView view) throws IllegalArgumentException {
+        if (view == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        TlvCursor cursor = view.tlvs();
+        if (!cursor.find(Tlv.PP2_TYPE_CRC32C)) {
+            return true;
+        }
+        if (cursor.length() != CRC32C_LENGTH) {
+            return false;
         }
 
-        List<Tlv> tlvs = null;
-        if (parseTlvs) {
-            int tlvLen = Math.max(0, variableLength - (addresses != null ? addresses.bytesConsumed : 0));
-            tlvs = parseTlvs(data, pos, tlvLen);
+        byte[] data = view.array();
+        ByteBuffer buffer = view.buffer();
+        int start = view.offset();
+        int field = cursor.valueOffset();
+        int end = start + view.getHeaderLength();
+        int expected = u32(data, buffer, field);
+
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        if (data != null) {
+            crc.update(data, start, field - start);
+            crc.update(CRC32C_PLACEHOLDER, 0, CRC32C_LENGTH);
+            crc.update(data, field + CRC32C_LENGTH, end - field - CRC32C_LENGTH);
+        } else {
+            crc.update(buffer.slice(start, field - start));
+            crc.update(CRC32C_PLACEHOLDER, 0, CRC32C_LENGTH);
+            crc.update(buffer.slice(field + CRC32C_LENGTH, end - field - CRC32C_LENGTH));
         }
+        return (int) crc.getValue() == expected;
+    }
 
-        InetSocketAddress src = addresses != null ? addresses.src : null;
-        InetSocketAddress dst = addresses != null ? addresses.dst : null;
+    private static void checkArguments(byte[] data, int offset, int length) {
+        if (data == null || offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
 
-        return new ProxyHeader(command, af, tp, src, dst, tlvs, headerLen);
+        if (offset > data.length - length) {
+            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        }
     }
 
-    private static AddressFamily parseAddressFamily(int fam)
-        throws ProxyProtocolParseException {
-        return switch (fam) {
-            case 0x00 -> AddressFamily.AF_UNSPEC;
-            case 0x10 -> AddressFamily.AF_INET;
-            case 0x20 -> AddressFamily.AF_INET6;
-            case 0x30 -> AddressFamily.AF_UNIX;
-            default -> throw new ProxyProtocolParseException("Invalid address family");
-        };
+    private static int check(int status) throws ProxyProtocolParseException {
+        if (status < 0) {
+            throw ProxyProtocolParseException.of(status);
+        }
+        return status;
     }
 
-    private static TransportProtocol parseTransportProtocol(int proto)
-        throws ProxyProtocolParseException {
-        return switch (proto) {
-            case 0x00 -> TransportProtocol.UNSPEC;
-            case 0x01 -> TransportProtocol.STREAM;
-            case 0x02 -> TransportProtocol.DGRAM;
-            default -> throw new ProxyProtocolParseException("Invalid transport protocol");
-        };
+    // Exactly one of data/buffer is non-null; offsets are absolute indexes into it.
+    private static ProxyHeader parse(byte[] data, ByteBuffer buffer, int offset, int length, boolean parseTlvs) throws ProxyProtocolParseException {
+        ProxyHeaderView view = new ProxyHeaderView();
+        check(decode(data, buffer, offset, length, view, false));
+
+        List<Tlv> tlvs = null;
+        if (parseTlvs) {
+            tlvs = parseTlvs(view);
+        }
+
+        return view.toProxyHeader(tlvs);
     }
 
-    private static final int IPV4_ADDR_PAIR_LEN = 2*(IPV4_ADDR_LEN + PORT_LEN);
-    private static AddressPair parseIPv4Addresses(byte[] data, int pos, int variableLength)
-            throws ProxyProtocolParseException {
-        if (variableLength < IPV4_ADDR_PAIR_LEN) {
-            throw new ProxyProtocolParseException("Truncated IPv4 address block in header");
+    private static int headerLength(byte[] data, ByteBuffer buffer, int offset, int length) {
+        if (PROTOCOL_SIGNATURE_FIXED_LENGTH > length) {
+            return ParseStatus.TRUNCATED;
         }
 
-        InetAddress s;
-        InetAddress d;
-        try {
-            s = InetAddress.getByAddress(new byte[]{data[pos++], data[pos++], data[pos++], data[pos++]});
-            d = InetAddress.getByAddress(new byte[]{data[pos++], data[pos++], data[pos++], data[pos++]});
-        } catch (UnknownHostException e) {
-            throw new ProxyProtocolParseException("Invalid IPv4 address in header", e);
+        // Check if we have enough data for the header
+        int headerLen = fixedHeaderLength(data, buffer, offset);
+        if (headerLen > length) {
+            return ParseStatus.TRUNCATED;
         }
+        return headerLen;
+    }
 
-        int sp = ((data[pos++] & 0xFF) << 8) | (data[pos++] & 0xFF);
-        int dp = ((data[pos++] & 0xFF) << 8) | (data[pos  ] & 0xFF);
+    /**
+     * Validates the 16 fixed bytes, which must be available from offset.
+     *
+     * @return the total header length they announce, or a negative {@link ParseStatus} code
+     */
+    static int fixedHeaderLength(byte[] data, ByteBuffer buffer, int offset) {
+        long head = u64(data, buffer, offset);
+        long tail = u64(data, buffer, offset + 8);
+        if (head != SIGNATURE_HEAD || (tail & SIGNATURE_TAIL_MASK) != SIGNATURE_TAIL) {
+            return signatureStatus(head, tail);
+        }
+
+        // Byte 14: address family and protocol
+        int famProto = (int) (tail >>> 16) & 0xFF;
+        int fam = famProto >> 4;
+        if (fam >= FAMILIES.length) {
+            return ParseStatus.INVALID_ADDRESS_FAMILY;
+        }
+        if ((famProto & 0x0F) >= PROTOCOLS.length) {
+            return ParseStatus.INVALID_TRANSPORT_PROTOCOL;
+        }
 
-        return new AddressPair(new InetSocketAddress(s, sp), new InetSocketAddress(d, dp), IPV4_ADDR_PAIR_LEN);
+        // Byte 15, 16: Length of address part of the header, including TLVs
+        int variableLength = (int) tail & 0xFFFF;
+        if (variableLength < ADDR_PAIR_LENGTHS[fam]) {
+            return ParseStatus.TRUNCATED_ADDRESS;
+        }
+        return PROTOCOL_SIGNATURE_FIXED_LENGTH + variableLength;
     }
 
-    private static final int IPV6_ADDR_PAIR_LEN = 2*(IPV6_ADDR_LEN + PORT_LEN);
-    private static AddressPair parseIPv6Addresses(byte[] data, int pos, int variableLength)
-            throws ProxyProtocolParseException {
-        if (variableLength < IPV6_ADDR_PAIR_LEN) {
-            throw new ProxyProtocolParseException("Truncated IPv6 address block in header");
+    // Slow path, only taken on mismatch: tells a bad signature from a bad version/command.
+    private static int signatureStatus(long head, long tail) {
+        if (head != SIGNATURE_HEAD || (tail >>> 32) != (SIGNATURE_TAIL >>> 32)) {
+            return ParseStatus.INVALID_SIGNATURE;
         }
+        // Byte 13: version/command
+        int verCmd = (int) (tail >>> 24) & 0xFF;
+        return (verCmd >> 4) != 2 ? ParseStatus.INVALID_VERSION : ParseStatus.INVALID_COMMAND;
+    }
 
-        InetAddress s;
-        InetAddress d;
-        byte[] sb = new byte[IPV6_ADDR_LEN];
-        byte[] db = new byte[IPV6_ADDR_LEN];
-        System.arraycopy(data, pos, sb, 0, IPV6_ADDR_LEN);
-        System.arraycopy(data, pos+IPV6_ADDR_LEN, db, 0, IPV6_ADDR_LEN);
-        try {
-            s = InetAddress.getByAddress(sb);
-            d = InetAddress.getByAddress(db);
-        } catch (UnknownHostException e) {
-            throw new ProxyProtocolParseException("Invalid IPv6 address in header", e);
+    private static int decode(byte[] data, ByteBuffer buffer, int offset, int length, ProxyHeaderView view, boolean sourceOnly) {
+        int headerLen = headerLength(data, buffer, offset, length);
+        if (headerLen < 0) {
+            return headerLen;
         }
 
-        pos += 2*IPV6_ADDR_LEN;
-        int sp = ((data[pos++] & 0xFF) << 8) | (data[pos++] & 0xFF);
-        int dp = ((data[pos++] & 0xFF) << 8) | (data[pos  ] & 0xFF);
+        int verCmd = u8(data, buffer, offset + PROTOCOL_SIGNATURE.length);
+        int famProto = u8(data, buffer, offset + PROTOCOL_SIGNATURE.length + 1);
+        decodeValidated(data, buffer, offset, headerLen, verCmd, famProto, view, sourceOnly);
+        return headerLen;
+    }
 
-        return new AddressPair(new InetSocketAddress(s, sp), new InetSocketAddress(d, dp), IPV6_ADDR_PAIR_LEN);
+    /**
+     * Decodes a header whose 16 fixed bytes were already validated, e.g. by
+     * {@link #fixedHeaderLength}, from the version/command and family/protocol bytes read
+     * then. The headerLen bytes it announced must be available from offset.
+     */
+    static void decodeValidated(byte[] data, ByteBuffer buffer, int offset, int headerLen, int verCmd, int famProto,
+                                ProxyHeaderView view, boolean sourceOnly) {
+        int fam = famProto >> 4;
+        int pos = offset + PROTOCOL_SIGNATURE_FIXED_LENGTH;
+
+        view.setBacking(data, buffer, offset);
+        view.setFixed(COMMANDS[verCmd & 0x0F], FAMILIES[fam], PROTOCOLS[famProto & 0x0F], headerLen);
+
+        switch (view.getFamily()) {
+            case AF_INET -> parseIPv4Addresses(data, buffer, pos, view, sourceOnly);
+            case AF_INET6 -> parseIPv6Addresses(data, buffer, pos, view, sourceOnly);
+            // A receiver is not required to implement other ones, provided that it
+            // automatically falls back to the UNSPEC mode for the valid combinations above
+            // that it does not support.
+            case AF_UNIX, AF_UNSPEC -> view.clearAddresses();
+        }
+        view.setTlvRegion(pos + ADDR_PAIR_LENGTHS[fam], offset + headerLen);
     }
 
-    private static final int UNIX_ADDR_PAIR_LEN = 2*UNIX_ADDR_LEN;
-    private static AddressPair parseUnixAddresses(byte[] data, int pos, int variableLength)
-            throws ProxyProtocolParseException {
-        if (variableLength < UNIX_ADDR_PAIR_LEN) {
-            throw new ProxyProtocolParseException("Truncated UNIX address block in header");
+    private static void parseIPv4Addresses(byte[] data, ByteBuffer buffer, int pos, ProxyHeaderView view, boolean sourceOnly) {
+        int portPos = pos + 2*IPV4_ADDR_LEN;
+        view.setSourceIPv4(u32(data, buffer, pos));
+        if (sourceOnly) {
+            view.setDestinationIPv4(0);
+            view.setPorts(u16(data, buffer, portPos), 0);
+        } else {
+            view.setDestinationIPv4(u32(data, buffer, pos + IPV4_ADDR_LEN));
+            view.setPorts(u16(data, buffer, portPos), u16(data, buffer, portPos + PORT_LEN));
         }
+    }
 
-        // A receiver is not required to implement other ones, provided that it
-        // automatically falls back to the UNSPEC mode for the valid combinations above
-        // that it does not support.
-        return new AddressPair(null, null, UNIX_ADDR_PAIR_LEN);
+    private static void parseIPv6Addresses(byte[] data, ByteBuffer buffer, int pos, ProxyHeaderView view, boolean sourceOnly) {
+        int portPos = pos + 2*IPV6_ADDR_LEN;
+        view.setSourceIPv6(u64(data, buffer, pos), u64(data, buffer, pos + 8));
+        if (sourceOnly) {
+            view.setDestinationIPv6(0, 0);
+            view.setPorts(u16(data, buffer, portPos), 0);
+        } else {
+            view.setDestinationIPv6(u64(data, buffer, pos + IPV6_ADDR_LEN), u64(data, buffer, pos + IPV6_ADDR_LEN + 8));
+            view.setPorts(u16(data, buffer, portPos), u16(data, buffer, portPos + PORT_LEN));
+        }
     }
 
-    private static List<Tlv> parseTlvs(byte[] data, int tlvPos, int tlvLen)
+    private static List<Tlv> parseTlvs(ProxyHeaderView view)
         throws ProxyProtocolParseException {
         List<Tlv> tlvs = new ArrayList<>();
 
-        int tlvEnd = tlvPos + tlvLen;
-        while (tlvPos + TLV_HEADER_LEN <= tlvEnd) {
-            int type = data[tlvPos++] & 0xFF;
-            int len = ((data[tlvPos++] & 0xFF) << 8) | (data[tlvPos++] & 0xFF);
-
-            if (tlvPos + len > tlvEnd) {
-                throw new ProxyProtocolParseException("Truncated TLV in header");
-            }
-            tlvs.add(Tlv.extractTlvFromPacket(type, data, tlvPos, len));
-            tlvPos += len;
+        TlvCursor cursor = view.tlvs();
+        while (cursor.next()) {
+            tlvs.add(cursor.toTlv());
+        }
+        if (cursor.isMalformed()) {
+            throw ProxyProtocolParseException.of(ParseStatus.TRUNCATED_TLV);
         }
         return tlvs;
     }
+
+    private static int u8(byte[] data, ByteBuffer buffer, int index) {
+        return (data != null ? data[index] : buffer.get(index)) & 0xFF;
+    }
+
+    private static int u16(byte[] data, ByteBuffer buffer, int index) {
+        return (data != null ? (short) ARRAY_SHORT.get(data, index) : (short) BUFFER_SHORT.get(buffer, index)) & 0xFFFF;
+    }
+
+    private static int u32(byte[] data, ByteBuffer buffer, int index) {
+        return data != null ? (int) ARRAY_INT.get(data, index) : (int) BUFFER_INT.get(buffer, index);
+    }
+
+    private static long u64(byte[] data, ByteBuffer buffer, int index) {
+        return data != null ? (long) ARRAY_LONG.get(data, index) : (long) BUFFER_LONG.get(buffer, index);
+    }
 }
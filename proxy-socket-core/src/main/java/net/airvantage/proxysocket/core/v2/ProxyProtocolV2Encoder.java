@@ -0,0 +1,482 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeader.TransportProtocol;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * Dependency-free Proxy Protocol v2 encoder writing headers straight into caller-supplied
+ * {@code byte[]} or {@link ByteBuffer} storage, so output buffers can be preallocated and
+ * reused.
+ *
+ * <p>Example usage:
+ * <pre>
+ * int len = ProxyProtocolV2Encoder.writeIPv4(out, 0, TransportProtocol.DGRAM, src, dst, srcPort, dstPort);
+ * len = ProxyProtocolV2Encoder.appendTlv(out, 0, 0xEA, vpcId, 0, vpcId.length);
+ * System.arraycopy(payload, 0, out, len, payload.length);
+ * </pre>
+ *
+ * The primitive entry points take IPv4 addresses as a big-endian int and IPv6 addresses as
+ * two big-endian longs, like {@link ProxyHeaderView}, and do not allocate. Buffer variants
+ * write at the buffer position and move it past the written bytes.
+ */
+public final class ProxyProtocolV2Encoder {
+    private ProxyProtocolV2Encoder() {}
+
+    public static final int LOCAL_HEADER_LENGTH = 16;
+    public static final int IPV4_HEADER_LENGTH = LOCAL_HEADER_LENGTH + 12;
+    public static final int IPV6_HEADER_LENGTH = LOCAL_HEADER_LENGTH + 36;
+    public static final int UNIX_HEADER_LENGTH = LOCAL_HEADER_LENGTH + 432;
+
+    private static final int VERSION_2 = 0x20;
+    private static final int CMD_LOCAL = 0x00;
+    private static final int CMD_PROXY = 0x01;
+    private static final int LENGTH_OFFSET = 14;
+    private static final int TLV_HEADER_LEN = 3;
+    private static final int MAX_VARIABLE_LENGTH = 0xFFFF;
+    private static final int CRC32C_LENGTH = 4;
+    private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+    // Signature bytes 0-7 and 8-11, written as one long and one int
+    private static final long SIGNATURE_HEAD = 0x0D0A0D0A000D0A51L;
+    private static final int SIGNATURE_TAIL = 0x5549540A;
+
+    private static final VarHandle ARRAY_SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle ARRAY_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Writes a LOCAL header (no addresses), e.g. for health checks.
+     *
+     * @return the number of bytes written
+     */
+    public static int writeLocal(byte[] dst, int offset) throws IllegalArgumentException {
+        checkSpace(dst, offset, LOCAL_HEADER_LENGTH);
+        return writeFixed(dst, null, offset, CMD_LOCAL, 0, 0);
+    }
+
+    public static int writeLocal(ByteBuffer dst) throws IllegalArgumentException {
+        byte[] array = target(dst, LOCAL_HEADER_LENGTH);
+        return advance(dst, writeFixed(array, array == null ? dst : null, index(dst), CMD_LOCAL, 0, 0));
+    }
+
+    /**
+     * Writes a PROXY header for an IPv4 address pair.
+     *
+     * @return the number of bytes written
+     */
+    public static int writeIPv4(byte[] dst, int offset, TransportProtocol protocol,
+                                int sourceAddress, int destinationAddress, int sourcePort, int destinationPort) throws IllegalArgumentException {
+        checkSpace(dst, offset, IPV4_HEADER_LENGTH);
+        return writeIPv4(dst, null, offset, protocol, sourceAddress, destinationAddress, sourcePort, destinationPort);
+    }
+
+    public static int writeIPv4(ByteBuffer dst, TransportProtocol protocol,
+                                int sourceAddress, int destinationAddress, int sourcePort, int destinationPort) throws IllegalArgumentException {
+        byte[] array = target(dst, IPV4_HEADER_LENGTH);
+        return advance(dst, writeIPv4(array, array == null ? dst : null, index(dst), protocol,
+            sourceAddress, destinationAddress, sourcePort, destinationPort));
+    }
+
+    /**
+     * Writes a PROXY header for an IPv6 address pair.
+     *
+     * @return the number of bytes written
+     */
+    public static int writeIPv6(byte[] dst, int offset, TransportProtocol protocol,
+                                long sourceHigh, long sourceLow, long destinationHigh, long destinationLow,
+                                int sourcePort, int destinationPort) throws IllegalArgumentException {
+        checkSpace(dst, offset, IPV6_HEADER_LENGTH);
+        return writeIPv6(dst, null, offset, protocol, sourceHigh, sourceLow, destinationHigh, destinationLow, sourcePort, destinationPort);
+    }
+
+    public static int writeIPv6(ByteBuffer dst, TransportProtocol protocol,
+                                long sourceHigh, long sourceLow, long destinationHigh, long destinationLow,
+                                int sourcePort, int destinationPort) throws IllegalArgumentException {
+        byte[] array = target(dst, IPV6_HEADER_LENGTH);
+        return advance(dst, writeIPv6(array, array == null ? dst : null, index(dst), protocol,
+            sourceHigh, sourceLow, destinationHigh, destinationLow, sourcePort, destinationPort));
+    }
+
+    /**
+     * Writes a full header, TLVs included. Addresses must both be IPv4 or both IPv6 for the
+     * AF_INET/AF_INET6 families. AF_UNSPEC headers carry no address block; AF_UNIX headers get
+     * a zeroed one, since {@link ProxyHeader} does not model UNIX socket paths.
+     *
+     * @return the number of bytes written
+     */
+    public static int write(byte[] dst, int offset, ProxyHeader header) throws IllegalArgumentException {
+        if (dst == null || header == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int length = writeAddresses(dst, offset, header);
+        for (Tlv tlv : header.getTlvs()) {
+            length = appendTlv(dst, offset, tlv.getType(), tlv.getValueBuffer());
+        }
+        return length;
+    }
+
+    public static int write(ByteBuffer dst, ProxyHeader header) throws IllegalArgumentException {
+        if (dst == null || header == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int start = dst.position();
+        int length = writeAddresses(dst, header);
+        for (Tlv tlv : header.getTlvs()) {
+            length = appendTlv(dst, start, tlv.getType(), tlv.getValueBuffer());
+        }
+        return length;
+    }
+
+    /**
+     * Appends a TLV to the header starting at headerOffset and patches its length field.
+     *
+     * @return the new header length
+     */
+    public static int appendTlv(byte[] dst, int headerOffset, int type, byte[] value, int valueOffset, int valueLength) throws IllegalArgumentException {
+        if (dst == null || value == null || valueOffset < 0 || valueLength < 0 || valueOffset + valueLength > value.length) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int tlvOffset = prepareTlv(dst, null, headerOffset, dst.length, type, valueLength);
+        System.arraycopy(value, valueOffset, dst, tlvOffset + TLV_HEADER_LEN, valueLength);
+        return tlvOffset + TLV_HEADER_LEN + valueLength - headerOffset;
+    }
+
+    /**
+     * Same as {@link #appendTlv(byte[], int, int, byte[], int, int)} with the value taken from
+     * the remaining bytes of a buffer, whose position is left untouched.
+     */
+    public static int appendTlv(byte[] dst, int headerOffset, int type, ByteBuffer value) throws IllegalArgumentException {
+        if (dst == null || value == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int valueLength = value.remaining();
+        int tlvOffset = prepareTlv(dst, null, headerOffset, dst.length, type, valueLength);
+        value.get(value.position(), dst, tlvOffset + TLV_HEADER_LEN, valueLength);
+        return tlvOffset + TLV_HEADER_LEN + valueLength - headerOffset;
+    }
+
+    /**
+     * Appends a TLV to the header starting at the absolute index headerStart of dst, patches its
+     * length field and moves the position right after the TLV.
+     *
+     * @return the new header length
+     */
+    public static int appendTlv(ByteBuffer dst, int headerStart, int type, byte[] value, int valueOffset, int valueLength) throws IllegalArgumentException {
+        if (value == null || valueOffset < 0 || valueLength < 0 || valueOffset + valueLength > value.length) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (dst == null || headerStart < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int tlvOffset;
+        if (dst.hasArray()) {
+            int base = dst.arrayOffset();
+            tlvOffset = prepareTlv(dst.array(), null, base + headerStart, base + dst.limit(), type, valueLength) - base;
+            System.arraycopy(value, valueOffset, dst.array(), base + tlvOffset + TLV_HEADER_LEN, valueLength);
+        } else {
+            tlvOffset = prepareTlv(null, dst, headerStart, dst.limit(), type, valueLength);
+            dst.put(tlvOffset + TLV_HEADER_LEN, value, valueOffset, valueLength);
+        }
+        int end = tlvOffset + TLV_HEADER_LEN + valueLength;
+        dst.position(end);
+        return end - headerStart;
+    }
+
+    public static int appendTlv(ByteBuffer dst, int headerStart, int type, ByteBuffer value) throws IllegalArgumentException {
+        if (dst == null || value == null || headerStart < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int valueLength = value.remaining();
+        int tlvOffset;
+        if (dst.hasArray()) {
+            int base = dst.arrayOffset();
+            tlvOffset = prepareTlv(dst.array(), null, base + headerStart, base + dst.limit(), type, valueLength) - base;
+            value.get(value.position(), dst.array(), base + tlvOffset + TLV_HEADER_LEN, valueLength);
+        } else {
+            tlvOffset = prepareTlv(null, dst, headerStart, dst.limit(), type, valueLength);
+            dst.put(tlvOffset + TLV_HEADER_LEN, value, value.position(), valueLength);
+        }
+        int end = tlvOffset + TLV_HEADER_LEN + valueLength;
+        dst.position(end);
+        return end - headerStart;
+    }
+
+    /**
+     * Appends a PP2_TYPE_CRC32C TLV to the header starting at headerOffset and fills it with the
+     * checksum of the whole header. Must be called after every other TLV has been appended.
+     *
+     * @return the new header length
+     */
+    public static int appendCrc32c(byte[] dst, int headerOffset) throws IllegalArgumentException {
+        if (dst == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int field = prepareTlv(dst, null, headerOffset, dst.length, Tlv.PP2_TYPE_CRC32C, CRC32C_LENGTH) + TLV_HEADER_LEN;
+        p32(dst, null, field, 0);
+        int length = field + CRC32C_LENGTH - headerOffset;
+
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        crc.update(dst, headerOffset, length);
+        p32(dst, null, field, (int) crc.getValue());
+        return length;
+    }
+
+    /**
+     * Same as {@link #appendCrc32c(byte[], int)} for a header starting at the absolute index
+     * headerStart of dst. The position is moved right after the TLV.
+     */
+    public static int appendCrc32c(ByteBuffer dst, int headerStart) throws IllegalArgumentException {
+        if (dst == null || headerStart < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (dst.hasArray()) {
+            int base = dst.arrayOffset();
+            prepareTlv(dst.array(), null, base + headerStart, base + dst.limit(), Tlv.PP2_TYPE_CRC32C, CRC32C_LENGTH);
+        } else {
+            prepareTlv(null, dst, headerStart, dst.limit(), Tlv.PP2_TYPE_CRC32C, CRC32C_LENGTH);
+        }
+        int field = headerStart + g16(null, dst, headerStart + LENGTH_OFFSET) + LOCAL_HEADER_LENGTH - CRC32C_LENGTH;
+        p32(null, dst, field, 0);
+
+        int end = field + CRC32C_LENGTH;
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        crc.update(dst.slice(headerStart, end - headerStart));
+        p32(null, dst, field, (int) crc.getValue());
+        dst.position(end);
+        return end - headerStart;
+    }
+
+    // Exactly one of data/buffer is non-null; offsets are absolute indexes into it.
+    private static int writeIPv4(byte[] data, ByteBuffer buffer, int offset, TransportProtocol protocol,
+                                 int sourceAddress, int destinationAddress, int sourcePort, int destinationPort) {
+        int pos = offset + writeFixed(data, buffer, offset, CMD_PROXY, famProto(AddressFamily.AF_INET, protocol), IPV4_HEADER_LENGTH - LOCAL_HEADER_LENGTH);
+        p32(data, buffer, pos, sourceAddress);
+        p32(data, buffer, pos + 4, destinationAddress);
+        p16(data, buffer, pos + 8, port(sourcePort));
+        p16(data, buffer, pos + 10, port(destinationPort));
+        return IPV4_HEADER_LENGTH;
+    }
+
+    private static int writeIPv6(byte[] data, ByteBuffer buffer, int offset, TransportProtocol protocol,
+                                 long sourceHigh, long sourceLow, long destinationHigh, long destinationLow,
+                                 int sourcePort, int destinationPort) {
+        int pos = offset + writeFixed(data, buffer, offset, CMD_PROXY, famProto(AddressFamily.AF_INET6, protocol), IPV6_HEADER_LENGTH - LOCAL_HEADER_LENGTH);
+        p64(data, buffer, pos, sourceHigh);
+        p64(data, buffer, pos + 8, sourceLow);
+        p64(data, buffer, pos + 16, destinationHigh);
+        p64(data, buffer, pos + 24, destinationLow);
+        p16(data, buffer, pos + 32, port(sourcePort));
+        p16(data, buffer, pos + 34, port(destinationPort));
+        return IPV6_HEADER_LENGTH;
+    }
+
+    private static int writeFixed(byte[] data, ByteBuffer buffer, int offset, int command, int famProto, int variableLength) {
+        p64(data, buffer, offset, SIGNATURE_HEAD);
+        p32(data, buffer, offset + 8, SIGNATURE_TAIL);
+        p16(data, buffer, offset + 12, ((VERSION_2 | command) << 8) | famProto);
+        p16(data, buffer, offset + LENGTH_OFFSET, variableLength);
+        return LOCAL_HEADER_LENGTH;
+    }
+
+    private static int writeAddresses(byte[] dst, int offset, ProxyHeader header) {
+        checkSpace(dst, offset, addressesLength(header));
+        return writeAddresses(dst, null, offset, header);
+    }
+
+    private static int writeAddresses(ByteBuffer dst, ProxyHeader header) {
+        byte[] array = target(dst, addressesLength(header));
+        return advance(dst, writeAddresses(array, array == null ? dst : null, index(dst), header));
+    }
+
+    private static int addressesLength(ProxyHeader header) {
+        if (header.isLocal()) {
+            return LOCAL_HEADER_LENGTH;
+        }
+        return switch (header.getFamily()) {
+            case AF_INET -> IPV4_HEADER_LENGTH;
+            case AF_INET6 -> IPV6_HEADER_LENGTH;
+            case AF_UNIX -> UNIX_HEADER_LENGTH;
+            case AF_UNSPEC -> LOCAL_HEADER_LENGTH;
+        };
+    }
+
+    private static int writeAddresses(byte[] data, ByteBuffer buffer, int offset, ProxyHeader header) {
+        if (header.isLocal()) {
+            return writeFixed(data, buffer, offset, CMD_LOCAL, 0, 0);
+        }
+        InetSocketAddress src = header.getSourceAddress();
+        InetSocketAddress dest = header.getDestinationAddress();
+        switch (header.getFamily()) {
+            case AF_INET -> {
+                return writeIPv4(data, buffer, offset, header.getProtocol(), ipv4(src), ipv4(dest), port(src), port(dest));
+            }
+            case AF_INET6 -> {
+                byte[] s = ipv6(src);
+                byte[] d = ipv6(dest);
+                return writeIPv6(data, buffer, offset, header.getProtocol(), high(s), low(s), high(d), low(d), port(src), port(dest));
+            }
+            case AF_UNIX -> {
+                int variableLength = UNIX_HEADER_LENGTH - LOCAL_HEADER_LENGTH;
+                writeFixed(data, buffer, offset, CMD_PROXY, famProto(AddressFamily.AF_UNIX, header.getProtocol()), variableLength);
+                for (int i = offset + LOCAL_HEADER_LENGTH; i < offset + UNIX_HEADER_LENGTH; i++) {
+                    p8(data, buffer, i, 0);
+                }
+                return UNIX_HEADER_LENGTH;
+            }
+            default -> {
+                return writeFixed(data, buffer, offset, CMD_PROXY, famProto(header.getFamily(), header.getProtocol()), 0);
+            }
+        }
+    }
+
+    // Checks there is room for a TLV after the current header, writes its type and length and
+    // patches the header length field. Returns the absolute index of the TLV.
+    private static int prepareTlv(byte[] data, ByteBuffer buffer, int headerOffset, int capacity, int type, int valueLength) {
+        if (headerOffset < 0 || headerOffset + LOCAL_HEADER_LENGTH > capacity) {
+            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        }
+        if (type < 0 || type > 0xFF) {
+            throw new IllegalArgumentException("Invalid TLV type: " + type);
+        }
+        int variableLength = g16(data, buffer, headerOffset + LENGTH_OFFSET);
+        int newVariableLength = variableLength + TLV_HEADER_LEN + valueLength;
+        if (valueLength > MAX_VARIABLE_LENGTH || newVariableLength > MAX_VARIABLE_LENGTH) {
+            throw new IllegalArgumentException("Header length exceeds " + MAX_VARIABLE_LENGTH + " bytes");
+        }
+        int tlvOffset = headerOffset + LOCAL_HEADER_LENGTH + variableLength;
+        if (tlvOffset + TLV_HEADER_LEN + valueLength > capacity) {
+            throw new IllegalArgumentException("Insufficient space for header");
+        }
+        p8(data, buffer, tlvOffset, type);
+        p16(data, buffer, tlvOffset + 1, valueLength);
+        p16(data, buffer, headerOffset + LENGTH_OFFSET, newVariableLength);
+        return tlvOffset;
+    }
+
+    private static int famProto(AddressFamily family, TransportProtocol protocol) {
+        if (family == null || protocol == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return (family.ordinal() << 4) | protocol.ordinal();
+    }
+
+    private static int port(InetSocketAddress address) {
+        return address.getPort();
+    }
+
+    private static int port(int port) {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid port: " + port);
+        }
+        return port;
+    }
+
+    private static int ipv4(InetSocketAddress address) {
+        InetAddress ip = address == null ? null : address.getAddress();
+        if (!(ip instanceof Inet4Address)) {
+            throw new IllegalArgumentException("Expected an IPv4 address: " + address);
+        }
+        byte[] raw = ip.getAddress();
+        return ((raw[0] & 0xFF) << 24) | ((raw[1] & 0xFF) << 16) | ((raw[2] & 0xFF) << 8) | (raw[3] & 0xFF);
+    }
+
+    private static byte[] ipv6(InetSocketAddress address) {
+        InetAddress ip = address == null ? null : address.getAddress();
+        if (!(ip instanceof Inet6Address)) {
+            throw new IllegalArgumentException("Expected an IPv6 address: " + address);
+        }
+        return ip.getAddress();
+    }
+
+    private static long high(byte[] raw) {
+        return (long) ARRAY_LONG.get(raw, 0);
+    }
+
+    private static long low(byte[] raw) {
+        return (long) ARRAY_LONG.get(raw, 8);
+    }
+
+    private static void checkSpace(byte[] dst, int offset, int length) {
+        if (dst == null || offset < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (offset > dst.length - length) {
+            throw new IllegalArgumentException("Insufficient space for header");
+        }
+    }
+
+    // Returns the backing array to write into, or null to write through the buffer itself.
+    private static byte[] target(ByteBuffer dst, int length) {
+        if (dst == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Insufficient space for header");
+        }
+        return dst.hasArray() ? dst.array() : null;
+    }
+
+    private static int index(ByteBuffer dst) {
+        return dst.hasArray() ? dst.arrayOffset() + dst.position() : dst.position();
+    }
+
+    private static int advance(ByteBuffer dst, int written) {
+        dst.position(dst.position() + written);
+        return written;
+    }
+
+    private static int g16(byte[] data, ByteBuffer buffer, int index) {
+        return (data != null ? (short) ARRAY_SHORT.get(data, index) : (short) BUFFER_SHORT.get(buffer, index)) & 0xFFFF;
+    }
+
+    private static void p8(byte[] data, ByteBuffer buffer, int index, int value) {
+        if (data != null) {
+            data[index] = (byte) value;
+        } else {
+            buffer.put(index, (byte) value);
+        }
+    }
+
+    private static void p16(byte[] data, ByteBuffer buffer, int index, int value) {
+        if (data != null) {
+            ARRAY_SHORT.set(data, index, (short) value);
+        } else {
+            BUFFER_SHORT.set(buffer, index, (short) value);
+        }
+    }
+
+    private static void p32(byte[] data, ByteBuffer buffer, int index, int value) {
+        if (data != null) {
+            ARRAY_INT.set(data, index, value);
+        } else {
+            BUFFER_INT.set(buffer, index, value);
+        }
+    }
+
+    private static void p64(byte[] data, ByteBuffer buffer, int index, long value) {
+        if (data != null) {
+            ARRAY_LONG.set(data, index, value);
+        } else {
+            BUFFER_LONG.set(buffer, index, value);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stateful, incremental Proxy Protocol v2 decoder for stream transports, fed with
+ * arbitrary chunks as they are read (e.g. from a non-blocking channel).
+ *
+ * <p>Example usage:
+ * <pre>
+ * switch (decoder.feed(readBuffer)) {
+ *     case NEED_MORE -> { } // wait for more bytes, at least decoder.bytesNeeded()
+ *     case DONE -> handle(decoder.view()); // readBuffer now starts with the payload
+ *     case ERROR -> close(ParseStatus.message(decoder.errorStatus()));
+ * }
+ * </pre>
+ *
+ * Only the bytes belonging to the header are consumed, so the payload following it is
+ * left to the caller. Each byte is copied and inspected once: signature bytes are checked
+ * as they arrive, the fixed part is validated as soon as its 16 bytes are complete, and the
+ * addresses are decoded once the announced length is buffered. The internal buffer never
+ * grows beyond the announced header length, hence at most {@link #MAX_HEADER_LENGTH} bytes.
+ *
+ * Thread-safety: This class is not thread-safe; use one instance per connection.
+ */
+public final class ProxyProtocolV2StreamDecoder {
+    public enum State { NEED_MORE, DONE, ERROR }
+
+    /**
+     * Largest possible v2 header: 16 fixed bytes plus a 16-bit variable length.
+     */
+    public static final int MAX_HEADER_LENGTH = ProxyProtocolV2Decoder.PROTOCOL_SIGNATURE_FIXED_LENGTH + 0xFFFF;
+
+    private static final int FIXED_LENGTH = ProxyProtocolV2Decoder.PROTOCOL_SIGNATURE_FIXED_LENGTH;
+    private static final byte[] SIGNATURE = ProxyProtocolV2Decoder.PROTOCOL_SIGNATURE;
+    // Large enough for an IPv6 address block without TLVs
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ProxyHeaderView view = new ProxyHeaderView();
+    private byte[] header = new byte[INITIAL_CAPACITY];
+    private int filled;
+    private int needed;
+    private boolean lengthKnown;
+    // Version/command and family/protocol bytes, kept from the fixed part validation
+    private int verCmd;
+    private int famProto;
+    private State state;
+    private int errorStatus;
+    private int consumed;
+
+    public ProxyProtocolV2StreamDecoder() {
+        reset();
+    }
+
+    /**
+     * Feeds a chunk of stream bytes.
+     *
+     * @return the resulting state; see {@link #consumed()} for the number of bytes taken
+     */
+    public State feed(byte[] data, int offset, int length) throws IllegalArgumentException {
+        if (data == null || offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        if (offset > data.length - length) {
+            throw new IllegalArgumentException("Invalid offset/length combination with data length");
+        }
+        return feed(data, null, offset, length);
+    }
+
+    /**
+     * Feeds the bytes between the buffer position and its limit. The position is moved past
+     * the consumed bytes, so on {@link State#DONE} it points at the first payload byte.
+     */
+    public State feed(ByteBuffer buffer) throws IllegalArgumentException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int position = buffer.position();
+        State result = buffer.hasArray()
+            ? feed(buffer.array(), null, buffer.arrayOffset() + position, buffer.remaining())
+            : feed(null, buffer, position, buffer.remaining());
+        buffer.position(position + consumed);
+        return result;
+    }
+
+    private State feed(byte[] data, ByteBuffer buffer, int offset, int length) {
+        consumed = 0;
+        if (state != State.NEED_MORE) {
+            return state;
+        }
+
+        int pos = offset;
+        int end = offset + length;
+        while (pos < end && filled < needed) {
+            int n = Math.min(end - pos, needed - filled);
+            if (data != null) {
+                System.arraycopy(data, pos, header, filled, n);
+            } else {
+                buffer.get(pos, header, filled, n);
+            }
+            int from = filled;
+            filled += n;
+            pos += n;
+
+            for (int i = from; i < Math.min(filled, SIGNATURE.length); i++) {
+                if (header[i] != SIGNATURE[i]) {
+                    return fail(ParseStatus.INVALID_SIGNATURE, pos - offset);
+                }
+            }
+            if (!lengthKnown && filled == FIXED_LENGTH) {
+                int headerLen = ProxyProtocolV2Decoder.fixedHeaderLength(header, null, 0);
+                if (headerLen < 0) {
+                    return fail(headerLen, pos - offset);
+                }
+                lengthKnown = true;
+                needed = headerLen;
+                verCmd = header[SIGNATURE.length] & 0xFF;
+                famProto = header[SIGNATURE.length + 1] & 0xFF;
+                if (header.length < headerLen) {
+                    header = Arrays.copyOf(header, headerLen);
+                }
+            }
+        }
+        consumed = pos - offset;
+
+        if (lengthKnown && filled == needed) {
+            // The fixed part was validated as it arrived; only the addresses are left
+            ProxyProtocolV2Decoder.decodeValidated(header, null, 0, filled, verCmd, famProto, view, false);
+            state = State.DONE;
+        }
+        return state;
+    }
+
+    private State fail(int status, int consumed) {
+        this.consumed = consumed;
+        errorStatus = status;
+        state = State.ERROR;
+        return state;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * @return the number of bytes taken from the chunk passed to the last feed call
+     */
+    public int consumed() {
+        return consumed;
+    }
+
+    /**
+     * @return while {@link State#NEED_MORE}, the minimum number of bytes still required;
+     *         exact once the 16 fixed bytes have been received. 0 otherwise.
+     */
+    public int bytesNeeded() {
+        return state == State.NEED_MORE ? needed - filled : 0;
+    }
+
+    /**
+     * @return the {@link ParseStatus} code of the failure when {@link State#ERROR}, 0 otherwise
+     */
+    public int errorStatus() {
+        return errorStatus;
+    }
+
+    /**
+     * @return the decoded header when {@link State#DONE}; it is backed by this decoder and only
+     *         valid until {@link #reset()}
+     */
+    public ProxyHeaderView view() {
+        if (state != State.DONE) {
+            throw new IllegalStateException("Header not decoded: " + state);
+        }
+        return view;
+    }
+
+    /**
+     * @return a standalone copy of the decoded header when {@link State#DONE}
+     */
+    public ProxyHeader toProxyHeader(boolean parseTlvs) throws ProxyProtocolParseException {
+        if (state != State.DONE) {
+            throw new IllegalStateException("Header not decoded: " + state);
+        }
+        return ProxyProtocolV2Decoder.parse(header, 0, filled, parseTlvs);
+    }
+
+    /**
+     * Prepares the decoder for a new stream, keeping its buffer.
+     */
+    public void reset() {
+        filled = 0;
+        needed = FIXED_LENGTH;
+        lengthKnown = false;
+        state = State.NEED_MORE;
+        errorStatus = 0;
+        consumed = 0;
+        view.reset();
+    }
+}
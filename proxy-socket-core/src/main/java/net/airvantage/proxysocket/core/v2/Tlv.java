@@ -4,9 +4,26 @@
  */
 package net.airvantage.proxysocket.core.v2;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 public final class Tlv {
+    public static final int PP2_TYPE_ALPN = 0x01;
+    public static final int PP2_TYPE_AUTHORITY = 0x02;
+    public static final int PP2_TYPE_CRC32C = 0x03;
+    public static final int PP2_TYPE_NOOP = 0x04;
+    public static final int PP2_TYPE_UNIQUE_ID = 0x05;
+    public static final int PP2_TYPE_SSL = 0x20;
+    public static final int PP2_SUBTYPE_SSL_VERSION = 0x21;
+    public static final int PP2_SUBTYPE_SSL_CN = 0x22;
+    public static final int PP2_SUBTYPE_SSL_CIPHER = 0x23;
+    public static final int PP2_SUBTYPE_SSL_SIG_ALG = 0x24;
+    public static final int PP2_SUBTYPE_SSL_KEY_ALG = 0x25;
+    public static final int PP2_TYPE_NETNS = 0x30;
+    public static final int PP2_TYPE_GCP = 0xE0;
+    public static final int PP2_TYPE_AWS = 0xEA;
+    public static final int PP2_TYPE_AZURE = 0xEE;
+
     private final int type;
     private final byte[] value;
 
@@ -20,8 +37,23 @@ public final class Tlv {
         return new Tlv(type, data);
     }
 
+    public static Tlv extractTlvFromPacket(int type, ByteBuffer packet, int offset, int length) {
+        byte[] data = new byte[length];
+        packet.get(offset, data, 0, length);
+        return new Tlv(type, data);
+    }
+
     public int getType() { return type; }
     public byte[] getValue() { return value.clone(); }
+    public int getLength() { return value.length; }
+
+    /**
+     * @return a read-only view of the value, without copying it
+     */
+    public ByteBuffer getValueBuffer() { return ByteBuffer.wrap(value).asReadOnlyBuffer(); }
+
+    // Uncopied value, for decoding within the package; must not be modified
+    byte[] rawValue() { return value; }
 
     @Override
     public String toString() {
@@ -0,0 +1,179 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable cursor walking a TLV region in place, without copying values.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TlvCursor cursor = view.tlvs();
+ * while (cursor.next()) {
+ *     if (cursor.type() == 0x02) {
+ *         ByteBuffer authority = cursor.value();
+ *     }
+ * }
+ * </pre>
+ *
+ * A TLV whose declared length overruns the region stops the iteration and marks the
+ * cursor as {@link #isMalformed() malformed}.
+ *
+ * Thread-safety: This class is not thread-safe.
+ */
+public final class TlvCursor {
+    private static final int TLV_HEADER_LEN = 3;
+
+    // Exactly one of array/buffer is set; offsets are absolute indexes into it.
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+    private int position;
+
+    private int type;
+    private int valueOffset;
+    private int valueLength;
+    private boolean malformed;
+
+    /**
+     * Points the cursor at the TLV region of a decoded header.
+     */
+    public TlvCursor reset(ProxyHeaderView view) {
+        return reset(view.array(), view.buffer(), view.tlvOffset(), view.tlvEnd());
+    }
+
+    /**
+     * Points the cursor at a raw TLV region, e.g. the sub-TLVs of a PP2_TYPE_SSL value.
+     */
+    public TlvCursor reset(byte[] data, int offset, int length) {
+        if (data == null || offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return reset(data, null, offset, offset + length);
+    }
+
+    /**
+     * Points the cursor at a raw TLV region of a buffer, using absolute indexes.
+     */
+    public TlvCursor reset(ByteBuffer data, int offset, int length) {
+        if (data == null || offset < 0 || length < 0 || offset > data.limit() - length) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        return reset(null, data, offset, offset + length);
+    }
+
+    private TlvCursor reset(byte[] array, ByteBuffer buffer, int start, int end) {
+        this.array = array;
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        rewind();
+        return this;
+    }
+
+    /**
+     * Moves the cursor back before the first TLV.
+     */
+    public void rewind() {
+        position = start;
+        type = -1;
+        valueOffset = start;
+        valueLength = 0;
+        malformed = false;
+    }
+
+    /**
+     * Advances to the next TLV.
+     *
+     * @return false when the region is exhausted or a truncated TLV is found
+     */
+    public boolean next() {
+        if (position + TLV_HEADER_LEN > end) {
+            return false;
+        }
+        int t = u8(position);
+        int len = (u8(position + 1) << 8) | u8(position + 2);
+        int valueStart = position + TLV_HEADER_LEN;
+        if (valueStart + len > end) {
+            malformed = true;
+            position = end;
+            return false;
+        }
+        type = t;
+        valueOffset = valueStart;
+        valueLength = len;
+        position = valueStart + len;
+        return true;
+    }
+
+    /**
+     * Rewinds then advances to the first TLV of the given type.
+     *
+     * @return true if the cursor is positioned on such a TLV
+     */
+    public boolean find(int type) {
+        rewind();
+        while (next()) {
+            if (this.type == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int type() { return type; }
+    public int length() { return valueLength; }
+    public boolean isMalformed() { return malformed; }
+
+    /**
+     * @return absolute index of the current value in {@link #array()} or {@link #buffer()}
+     */
+    public int valueOffset() { return valueOffset; }
+
+    /**
+     * @return the backing array, or null if the cursor walks a buffer without accessible array
+     */
+    public byte[] array() { return array; }
+
+    /**
+     * @return the backing buffer, or null if the cursor walks an array
+     */
+    public ByteBuffer buffer() { return buffer; }
+
+    /**
+     * @return unsigned byte at the given index of the current value
+     */
+    public int valueByte(int index) {
+        if (index < 0 || index >= valueLength) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return u8(valueOffset + index);
+    }
+
+    /**
+     * @return a read-only slice sharing the packet storage for the current value
+     */
+    public ByteBuffer value() {
+        ByteBuffer slice = array != null
+            ? ByteBuffer.wrap(array, valueOffset, valueLength).slice()
+            : buffer.slice(valueOffset, valueLength);
+        return slice.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a copy of the current TLV
+     */
+    public Tlv toTlv() {
+        return array != null
+            ? Tlv.extractTlvFromPacket(type, array, valueOffset, valueLength)
+            : Tlv.extractTlvFromPacket(type, buffer, valueOffset, valueLength);
+    }
+
+    private int u8(int index) {
+        return (array != null ? array[index] : buffer.get(index)) & 0xFF;
+    }
+}
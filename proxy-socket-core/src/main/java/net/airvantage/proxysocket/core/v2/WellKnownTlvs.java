@@ -0,0 +1,280 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Typed, decoded form of the well-known TLVs of a header: the PP2_TYPE_* types of the
+ * specification and the AWS, Azure and GCP vendor types.
+ *
+ * <p>Instances are obtained from {@link ProxyHeader#getWellKnownTlvs()} or
+ * {@link ProxyHeaderView#wellKnownTlvs()}. Each accessor looks up and decodes its own TLV on
+ * first call and caches the result, so only the types actually read are decoded, and repeated
+ * access allocates nothing. Absent or malformed TLVs are reported as null (or an empty
+ * optional). Values of an instance obtained from a view are read from the packet storage, so
+ * they must be accessed before that storage is reused.
+ *
+ * Thread-safety: Instances obtained from a {@link ProxyHeader} are thread-safe; a value may
+ * be decoded more than once under contention, with equal results. Instances obtained from a
+ * {@link ProxyHeaderView} are not thread-safe, like the view.
+ */
+public final class WellKnownTlvs {
+    // Vendor sub-types carried in the first byte of the value
+    private static final int AWS_SUBTYPE_VPCE_ID = 0x01;
+    private static final int AZURE_SUBTYPE_LINK_ID = 0x01;
+
+    // One cache slot per accessor, holding the decoded value of the TLV type at the same index
+    private static final int ALPN = 0;
+    private static final int AUTHORITY = 1;
+    private static final int UNIQUE_ID = 2;
+    private static final int SSL = 3;
+    private static final int NETNS = 4;
+    private static final int AWS = 5;
+    private static final int AZURE = 6;
+    private static final int GCP = 7;
+    private static final int[] TYPES = {
+        Tlv.PP2_TYPE_ALPN, Tlv.PP2_TYPE_AUTHORITY, Tlv.PP2_TYPE_UNIQUE_ID, Tlv.PP2_TYPE_SSL,
+        Tlv.PP2_TYPE_NETNS, Tlv.PP2_TYPE_AWS, Tlv.PP2_TYPE_AZURE, Tlv.PP2_TYPE_GCP
+    };
+    // Cached for absent or malformed TLVs, since a null slot means not decoded yet
+    private static final Object ABSENT = new Object();
+
+    static final WellKnownTlvs EMPTY = new WellKnownTlvs(List.of(), null);
+
+    // Exactly one source is set: the TLVs parsed with a ProxyHeader, or the region of a view
+    private final List<Tlv> tlvs;
+    private final TlvCursor cursor;
+    private final Object[] slots = new Object[TYPES.length];
+
+    private WellKnownTlvs(List<Tlv> tlvs, TlvCursor cursor) {
+        this.tlvs = tlvs;
+        this.cursor = cursor;
+    }
+
+    static WellKnownTlvs of(List<Tlv> tlvs) {
+        return tlvs.isEmpty() ? EMPTY : new WellKnownTlvs(tlvs, null);
+    }
+
+    static WellKnownTlvs of(ProxyHeaderView view) {
+        return view.tlvOffset() == view.tlvEnd() ? EMPTY : new WellKnownTlvs(null, new TlvCursor().reset(view));
+    }
+
+    /**
+     * @return the negotiated application protocol (PP2_TYPE_ALPN), e.g. "h2"
+     */
+    public String getAlpn() { return (String) slot(ALPN); }
+
+    /**
+     * @return the host name sent by the client (PP2_TYPE_AUTHORITY), typically the SNI
+     */
+    public String getAuthority() { return (String) slot(AUTHORITY); }
+
+    /**
+     * @return the connection unique ID (PP2_TYPE_UNIQUE_ID), decoded as ISO-8859-1 so that
+     *         every byte maps to one character
+     */
+    public String getUniqueId() { return (String) slot(UNIQUE_ID); }
+
+    /**
+     * @return the TLS information (PP2_TYPE_SSL and its sub-TLVs)
+     */
+    public Ssl getSsl() { return (Ssl) slot(SSL); }
+
+    /**
+     * @return the network namespace name (PP2_TYPE_NETNS)
+     */
+    public String getNetns() { return (String) slot(NETNS); }
+
+    /**
+     * @return the AWS VPC endpoint ID (type 0xEA, sub-type 0x01), e.g. "vpce-08d2bf15fac5001c9"
+     */
+    public String getAwsVpcEndpointId() { return (String) slot(AWS); }
+
+    /**
+     * @return the Azure private endpoint LinkID (type 0xEE, sub-type 0x01), an unsigned 32-bit value
+     */
+    public OptionalLong getAzureLinkId() { return optional(slot(AZURE)); }
+
+    /**
+     * @return the GCP Private Service Connect connection ID (type 0xE0), an unsigned 64-bit value
+     */
+    public OptionalLong getGcpConnectionId() { return optional(slot(GCP)); }
+
+    @Override
+    public String toString() {
+        return "WellKnownTlvs{alpn=" + getAlpn() + ", authority=" + getAuthority() + ", uniqueId=" + getUniqueId()
+            + ", ssl=" + getSsl() + ", netns=" + getNetns() + ", awsVpcEndpointId=" + getAwsVpcEndpointId()
+            + ", azureLinkId=" + getAzureLinkId() + ", gcpConnectionId=" + getGcpConnectionId() + '}';
+    }
+
+    // The slot holds the OptionalLong itself, so repeated access allocates nothing
+    private static OptionalLong optional(Object value) {
+        return value == null ? OptionalLong.empty() : (OptionalLong) value;
+    }
+
+    private Object slot(int slot) {
+        Object value = slots[slot];
+        if (value == null) {
+            value = find(TYPES[slot]);
+            slots[slot] = value;
+        }
+        return value == ABSENT ? null : value;
+    }
+
+    // Decodes the first TLV of the given type, in place
+    private Object find(int type) {
+        if (cursor != null) {
+            return cursor.find(type)
+                ? decode(type, cursor.array(), cursor.buffer(), cursor.valueOffset(), cursor.length())
+                : ABSENT;
+        }
+        for (Tlv tlv : tlvs) {
+            if (tlv.getType() == type) {
+                byte[] value = tlv.rawValue();
+                return decode(type, value, null, 0, value.length);
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * TLS information from PP2_TYPE_SSL.
+     */
+    public static final class Ssl {
+        private static final int PP2_CLIENT_SSL = 0x01;
+        private static final int PP2_CLIENT_CERT_CONN = 0x02;
+        private static final int PP2_CLIENT_CERT_SESS = 0x04;
+
+        private final int client;
+        private final int verify;
+        private final String version;
+        private final String commonName;
+        private final String cipher;
+        private final String signatureAlgorithm;
+        private final String keyAlgorithm;
+
+        private Ssl(int client, int verify, String version, String commonName, String cipher,
+                    String signatureAlgorithm, String keyAlgorithm) {
+            this.client = client;
+            this.verify = verify;
+            this.version = version;
+            this.commonName = commonName;
+            this.cipher = cipher;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.keyAlgorithm = keyAlgorithm;
+        }
+
+        /**
+         * @return raw client bit field
+         */
+        public int getClient() { return client; }
+        public boolean isClientSsl() { return (client & PP2_CLIENT_SSL) != 0; }
+        public boolean isClientCertConnection() { return (client & PP2_CLIENT_CERT_CONN) != 0; }
+        public boolean isClientCertSession() { return (client & PP2_CLIENT_CERT_SESS) != 0; }
+
+        /**
+         * @return true if the client presented a certificate that was successfully verified
+         */
+        public boolean isVerified() { return verify == 0; }
+
+        public String getVersion() { return version; }
+        public String getCommonName() { return commonName; }
+        public String getCipher() { return cipher; }
+        public String getSignatureAlgorithm() { return signatureAlgorithm; }
+        public String getKeyAlgorithm() { return keyAlgorithm; }
+
+        @Override
+        public String toString() {
+            return "Ssl{client=" + client + ", verify=" + verify + ", version=" + version + ", cn=" + commonName
+                + ", cipher=" + cipher + ", sigAlg=" + signatureAlgorithm + ", keyAlg=" + keyAlgorithm + '}';
+        }
+    }
+
+    // The value is at [offset, offset + length) of exactly one of array and buffer.
+    private static Object decode(int type, byte[] array, ByteBuffer buffer, int offset, int length) {
+        switch (type) {
+            case Tlv.PP2_TYPE_ALPN:
+            case Tlv.PP2_TYPE_NETNS:
+                return string(array, buffer, offset, length, StandardCharsets.US_ASCII);
+            case Tlv.PP2_TYPE_AUTHORITY:
+                return string(array, buffer, offset, length, StandardCharsets.UTF_8);
+            case Tlv.PP2_TYPE_UNIQUE_ID:
+                return string(array, buffer, offset, length, StandardCharsets.ISO_8859_1);
+            case Tlv.PP2_TYPE_SSL:
+                return ssl(array, buffer, offset, length);
+            case Tlv.PP2_TYPE_AWS:
+                return length > 1 && u8(array, buffer, offset) == AWS_SUBTYPE_VPCE_ID
+                    ? string(array, buffer, offset + 1, length - 1, StandardCharsets.US_ASCII)
+                    : ABSENT;
+            case Tlv.PP2_TYPE_AZURE:
+                return length == 5 && u8(array, buffer, offset) == AZURE_SUBTYPE_LINK_ID
+                    ? OptionalLong.of(Integer.reverseBytes((int) bigEndian(array, buffer, offset + 1, 4)) & 0xFFFFFFFFL)
+                    : ABSENT;
+            case Tlv.PP2_TYPE_GCP:
+                return length == 8 ? OptionalLong.of(bigEndian(array, buffer, offset, 8)) : ABSENT;
+            default:
+                return ABSENT;
+        }
+    }
+
+    private static Object ssl(byte[] array, ByteBuffer buffer, int offset, int length) {
+        // 1 byte client, 4 bytes verify, then sub-TLVs
+        if (length < 5) {
+            return ABSENT;
+        }
+        int client = u8(array, buffer, offset);
+        int verify = (int) bigEndian(array, buffer, offset + 1, 4);
+
+        String version = null;
+        String cn = null;
+        String cipher = null;
+        String sigAlg = null;
+        String keyAlg = null;
+        TlvCursor sub = array != null
+            ? new TlvCursor().reset(array, offset + 5, length - 5)
+            : new TlvCursor().reset(buffer, offset + 5, length - 5);
+        while (sub.next()) {
+            switch (sub.type()) {
+                case Tlv.PP2_SUBTYPE_SSL_VERSION -> version = string(sub, StandardCharsets.US_ASCII);
+                case Tlv.PP2_SUBTYPE_SSL_CN -> cn = string(sub, StandardCharsets.UTF_8);
+                case Tlv.PP2_SUBTYPE_SSL_CIPHER -> cipher = string(sub, StandardCharsets.US_ASCII);
+                case Tlv.PP2_SUBTYPE_SSL_SIG_ALG -> sigAlg = string(sub, StandardCharsets.US_ASCII);
+                case Tlv.PP2_SUBTYPE_SSL_KEY_ALG -> keyAlg = string(sub, StandardCharsets.US_ASCII);
+                default -> { }
+            }
+        }
+        return new Ssl(client, verify, version, cn, cipher, sigAlg, keyAlg);
+    }
+
+    private static String string(TlvCursor c, Charset charset) {
+        return string(c.array(), c.buffer(), c.valueOffset(), c.length(), charset);
+    }
+
+    private static String string(byte[] array, ByteBuffer buffer, int offset, int length, Charset charset) {
+        if (array != null) {
+            return new String(array, offset, length, charset);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, charset);
+    }
+
+    private static long bigEndian(byte[] array, ByteBuffer buffer, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | u8(array, buffer, offset + i);
+        }
+        return value;
+    }
+
+    private static int u8(byte[] array, ByteBuffer buffer, int index) {
+        return (array != null ? array[index] : buffer.get(index)) & 0xFF;
+    }
+}
@@ -8,16 +8,21 @@ import net.airvantage.proxysocket.core.ProxyAddressCache;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Simple thread-safe cache backed by {@link ConcurrentHashMap}.
  */
 public final class ConcurrentMapProxyAddressCache implements ProxyAddressCache {
     private final ConcurrentMap<InetSocketAddress, InetSocketAddress> map = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
 
     @Override
     public void put(InetSocketAddress clientAddr, InetSocketAddress proxyAddr) {
-        map.put(clientAddr, proxyAddr);
+        InetSocketAddress previous = map.put(clientAddr, proxyAddr);
+        if (previous != null && !previous.equals(proxyAddr)) {
+            version.incrementAndGet();
+        }
     }
 
     @Override
@@ -27,11 +32,19 @@ public final class ConcurrentMapProxyAddressCache implements ProxyAddressCache {
 
     @Override
     public void invalidate(InetSocketAddress clientAddr) {
-        map.remove(clientAddr);
+        if (map.remove(clientAddr) != null) {
+            version.incrementAndGet();
+        }
     }
 
     @Override
     public void clear() {
         map.clear();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
     }
 }
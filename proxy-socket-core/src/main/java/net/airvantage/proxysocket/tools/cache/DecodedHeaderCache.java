@@ -0,0 +1,155 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.cache;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of decoded v2 headers, keyed on the raw header bytes.
+ *
+ * <p>Behind a load balancer, every datagram of a given client flow carries the very same
+ * header bytes. On a hit, the previously built {@link ProxyHeader} is returned, along with
+ * its source {@link java.net.InetSocketAddress} instance, instead of decoding and
+ * allocating again. Lookups hash the header bytes, then compare them with the cached copy,
+ * so a hash collision only costs a miss.
+ *
+ * <p>Like {@link InetSocketAddressPool}, the cache is a direct-mapped table: each header
+ * hashes to a single slot, and a new header replaces whatever occupied its slot. Headers
+ * whose TLVs vary per packet (e.g. CRC32C, unique IDs) never hit and only add overhead.
+ *
+ * Thread-safety: This class is thread-safe. Slots hold immutable entries published through
+ * final fields, so concurrent readers either see a complete entry or a miss.
+ */
+public final class DecodedHeaderCache {
+    private record Entry(long hash, byte[] bytes, ProxyHeader header) {}
+
+    private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Entry[] table;
+    private final int mask;
+    private final boolean parseTlvs;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity maximum number of cached headers, rounded up to a power of two
+     * @param parseTlvs whether cached headers include their TLVs
+     */
+    public DecodedHeaderCache(int capacity, boolean parseTlvs) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new Entry[size];
+        this.mask = size - 1;
+        this.parseTlvs = parseTlvs;
+    }
+
+    /**
+     * Returns the decoded header found at offset, from the cache when the same header bytes
+     * were seen recently.
+     *
+     * @return the header, or null if the data does not start with a valid v2 header; use
+     *         {@link #tryGet(byte[], int, int, ProxyHeader[])} to find out why
+     */
+    public ProxyHeader get(byte[] data, int offset, int length) throws IllegalArgumentException {
+        int headerLen = ProxyProtocolV2Decoder.headerLength(data, offset, length);
+        if (headerLen < 0) {
+            return null;
+        }
+        Entry e = lookup(data, offset, headerLen);
+        return e != null ? e.header : null;
+    }
+
+    /**
+     * Non-throwing variant of {@link #get(byte[], int, int)} that also reports why no header
+     * was found, so that junk traffic is checked only once.
+     *
+     * @param header receives the decoded header at index 0 on success
+     * @return the header length, or a negative {@link ParseStatus} code
+     */
+    public int tryGet(byte[] data, int offset, int length, ProxyHeader[] header) throws IllegalArgumentException {
+        if (header == null || header.length == 0) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        int headerLen = ProxyProtocolV2Decoder.headerLength(data, offset, length);
+        if (headerLen < 0) {
+            return headerLen;
+        }
+        Entry e = lookup(data, offset, headerLen);
+        if (e == null) {
+            return ParseStatus.TRUNCATED_TLV;
+        }
+        header[0] = e.header;
+        return headerLen;
+    }
+
+    // Returns the entry of the validated header at [offset, offset + headerLen), decoding and
+    // caching it on a miss, or null if its TLVs are malformed.
+    private Entry lookup(byte[] data, int offset, int headerLen) {
+        long hash = hash(data, offset, headerLen);
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        Entry e = table[index];
+        if (e != null && e.hash == hash && Arrays.equals(e.bytes, 0, e.bytes.length, data, offset, offset + headerLen)) {
+            hits.increment();
+            return e;
+        }
+        misses.increment();
+
+        ProxyHeader header;
+        try {
+            header = ProxyProtocolV2Decoder.parse(data, offset, headerLen, parseTlvs);
+        } catch (ProxyProtocolParseException ex) {
+            // Only reachable with malformed TLVs, as headerLength validated the rest
+            return null;
+        }
+        e = new Entry(hash, Arrays.copyOfRange(data, offset, offset + headerLen), header);
+        table[index] = e;
+        return e;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int capacity() {
+        return table.length;
+    }
+
+    public void clear() {
+        Arrays.fill(table, null);
+    }
+
+    // Word-at-a-time multiplicative hash; headers are short so no need for anything fancier.
+    private static long hash(byte[] data, int offset, int length) {
+        long h = length;
+        int i = offset;
+        int end = offset + length;
+        for (; i + 8 <= end; i += 8) {
+            h = (h ^ (long) ARRAY_LONG.get(data, i)) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        for (; i < end; i++) {
+            h = (h ^ (data[i] & 0xFF)) * 0x9E3779B97F4A7C15L;
+        }
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.cache;
+
+import net.airvantage.proxysocket.core.v2.ProxyHeader.AddressFamily;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Bounded interning pool returning canonical {@link InetSocketAddress} instances for
+ * addresses given as primitives (IPv4 as int, IPv6 as two longs, port as int).
+ *
+ * <p>Recurring clients get the very same instance back, so no address object is allocated
+ * for them, and map lookups keyed by those instances can take identity-equality fast paths.
+ *
+ * <p>The pool is a direct-mapped table: each key hashes to a single slot, and a new address
+ * replaces whatever occupied its slot. Memory is therefore bounded by the capacity, at the
+ * cost of occasional re-allocation on collisions.
+ *
+ * Thread-safety: This class is thread-safe. Slots hold immutable entries published through
+ * final fields, so concurrent readers either see a complete entry or a miss.
+ */
+public final class InetSocketAddressPool {
+    private record Entry(boolean ipv6, long high, long low, InetSocketAddress address) {}
+
+    private final Entry[] table;
+    private final int mask;
+
+    /**
+     * @param capacity maximum number of pooled addresses, rounded up to a power of two
+     */
+    public InetSocketAddressPool(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param ipv4 big-endian IPv4 address
+     * @param port port number
+     * @return the canonical socket address
+     */
+    public InetSocketAddress intern(int ipv4, int port) {
+        long key = ((ipv4 & 0xFFFFFFFFL) << 16) | (port & 0xFFFF);
+        int index = mix(key) & mask;
+        Entry e = table[index];
+        if (e != null && !e.ipv6 && e.low == key) {
+            return e.address;
+        }
+
+        byte[] raw = {(byte) (ipv4 >>> 24), (byte) (ipv4 >>> 16), (byte) (ipv4 >>> 8), (byte) ipv4};
+        InetSocketAddress address = newAddress(raw, port);
+        table[index] = new Entry(false, 0, key, address);
+        return address;
+    }
+
+    /**
+     * @param high high 64 bits of the big-endian IPv6 address
+     * @param low low 64 bits of the big-endian IPv6 address
+     * @param port port number
+     * @return the canonical socket address
+     */
+    public InetSocketAddress intern(long high, long low, int port) {
+        long keyHigh = high ^ ((long) (port & 0xFFFF) << 48);
+        int index = mix(keyHigh * 31 + low) & mask;
+        Entry e = table[index];
+        if (e != null && e.ipv6 && e.high == high && e.low == low && e.address.getPort() == port) {
+            return e.address;
+        }
+
+        byte[] raw = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            raw[i] = (byte) (high >>> (56 - 8 * i));
+            raw[8 + i] = (byte) (low >>> (56 - 8 * i));
+        }
+        InetSocketAddress address = newAddress(raw, port);
+        table[index] = new Entry(true, high, low, address);
+        return address;
+    }
+
+    /**
+     * Interns the source address of a decoded header.
+     *
+     * @return the canonical source address, or null if the header carries no IPv4/IPv6 address
+     */
+    public InetSocketAddress sourceOf(ProxyHeaderView view) {
+        AddressFamily family = view.getFamily();
+        if (family == AddressFamily.AF_INET) {
+            return intern(view.getSourceIPv4(), view.getSourcePort());
+        }
+        if (family == AddressFamily.AF_INET6) {
+            return intern(view.getSourceIPv6High(), view.getSourceIPv6Low(), view.getSourcePort());
+        }
+        return null;
+    }
+
+    public int capacity() {
+        return table.length;
+    }
+
+    public void clear() {
+        Arrays.fill(table, null);
+    }
+
+    private static InetSocketAddress newAddress(byte[] raw, int port) {
+        try {
+            return new InetSocketAddress(InetAddress.getByAddress(raw), port);
+        } catch (UnknownHostException e) {
+            // Cannot happen: raw is always 4 or 16 bytes long
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.metrics;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics listener counting every callback in {@link LongAdder}s, so that receive threads
+ * updating it concurrently do not contend, and events allocate nothing. Counters are read
+ * through an immutable {@link #snapshot()}.
+ *
+ * <p>Counted: headers parsed per address family and command, header bytes stripped, parse
+ * errors per {@link ParseStatus} code, address cache hits and misses, and datagrams from
+ * trusted proxies, untrusted sources and LOCAL headers.
+ *
+ * <p>Example usage:
+ * <pre>
+ * LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+ * ProxyDatagramSocket socket = new ProxyDatagramSocket(5683, cache, metrics, predicate);
+ * ...
+ * LongAdderMetricsListener.Snapshot s = metrics.snapshot();
+ * long errors = s.parseErrors();
+ * </pre>
+ *
+ * Thread-safety: This class is thread-safe. A snapshot taken while events are counted is
+ * not atomic across counters.
+ */
+public final class LongAdderMetricsListener implements ProxyProtocolMetricsListener {
+
+    private static final int FAMILIES = ProxyHeader.AddressFamily.values().length;
+    private static final int COMMANDS = ProxyHeader.Command.values().length;
+    // Parse errors are indexed by -status; codes outside of [-31, -1] count as OTHER
+    private static final int STATUSES = -ParseStatus.OTHER + 1;
+
+    private final LongAdder[] headers = adders(FAMILIES * COMMANDS);
+    private final LongAdder[] parseErrors = adders(STATUSES);
+    private final LongAdder bytesStripped = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder trustedProxy = new LongAdder();
+    private final LongAdder untrustedProxy = new LongAdder();
+    private final LongAdder local = new LongAdder();
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static int headerIndex(ProxyHeader.AddressFamily family, ProxyHeader.Command command) {
+        return family.ordinal() * COMMANDS + command.ordinal();
+    }
+
+    private static int statusIndex(int status) {
+        return status < 0 && -status < STATUSES ? -status : -ParseStatus.OTHER;
+    }
+
+    @Override
+    public void onHeaderParsed(ProxyHeader header) {
+        headers[headerIndex(header.getFamily(), header.getCommand())].increment();
+        bytesStripped.add(header.getHeaderLength());
+    }
+
+    @Override
+    public void onParseError(Exception e) {
+        int status = e instanceof ProxyProtocolParseException ? ((ProxyProtocolParseException) e).getStatus() : ParseStatus.OTHER;
+        parseErrors[statusIndex(status)].increment();
+    }
+
+    @Override
+    public void onCacheHit(InetSocketAddress client) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void onCacheMiss(InetSocketAddress client) {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void onUntrustedProxy(InetAddress proxy) {
+        untrustedProxy.increment();
+    }
+
+    @Override
+    public void onTrustedProxy(InetAddress proxy) {
+        trustedProxy.increment();
+    }
+
+    @Override
+    public void onLocal(InetAddress proxy) {
+        local.increment();
+    }
+
+    /**
+     * @return the current value of every counter
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Resets every counter to zero. Events counted concurrently may be lost.
+     */
+    public void reset() {
+        for (LongAdder adder : headers) {
+            adder.reset();
+        }
+        for (LongAdder adder : parseErrors) {
+            adder.reset();
+        }
+        bytesStripped.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        trustedProxy.reset();
+        untrustedProxy.reset();
+        local.reset();
+    }
+
+    /**
+     * Counter values at the time of {@link #snapshot()}.
+     */
+    public static final class Snapshot {
+        private final long[] headers = new long[FAMILIES * COMMANDS];
+        private final long[] parseErrors = new long[STATUSES];
+        private final long headersTotal;
+        private final long parseErrorsTotal;
+        private final long bytesStripped;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long trustedProxy;
+        private final long untrustedProxy;
+        private final long local;
+
+        private Snapshot(LongAdderMetricsListener m) {
+            long total = 0;
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = m.headers[i].sum();
+                total += headers[i];
+            }
+            this.headersTotal = total;
+            total = 0;
+            for (int i = 0; i < parseErrors.length; i++) {
+                parseErrors[i] = m.parseErrors[i].sum();
+                total += parseErrors[i];
+            }
+            this.parseErrorsTotal = total;
+            this.bytesStripped = m.bytesStripped.sum();
+            this.cacheHits = m.cacheHits.sum();
+            this.cacheMisses = m.cacheMisses.sum();
+            this.trustedProxy = m.trustedProxy.sum();
+            this.untrustedProxy = m.untrustedProxy.sum();
+            this.local = m.local.sum();
+        }
+
+        public long headersParsed() {
+            return headersTotal;
+        }
+
+        public long headersParsed(ProxyHeader.AddressFamily family, ProxyHeader.Command command) {
+            return headers[headerIndex(family, command)];
+        }
+
+        /**
+         * @return the total length of the headers parsed, i.e. bytes stripped from datagrams
+         */
+        public long bytesStripped() {
+            return bytesStripped;
+        }
+
+        public long parseErrors() {
+            return parseErrorsTotal;
+        }
+
+        /**
+         * @param status a {@link ParseStatus} error code; unknown codes are counted as {@link ParseStatus#OTHER}
+         */
+        public long parseErrors(int status) {
+            return parseErrors[statusIndex(status)];
+        }
+
+        public long cacheHits() {
+            return cacheHits;
+        }
+
+        public long cacheMisses() {
+            return cacheMisses;
+        }
+
+        public long trustedProxy() {
+            return trustedProxy;
+        }
+
+        public long untrustedProxy() {
+            return untrustedProxy;
+        }
+
+        public long local() {
+            return local;
+        }
+    }
+}
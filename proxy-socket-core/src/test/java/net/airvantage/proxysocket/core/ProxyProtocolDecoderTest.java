@@ -0,0 +1,106 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of version detection and dispatch
+ */
+package net.airvantage.proxysocket.core;
+
+import net.airvantage.proxysocket.core.ProxyProtocolDecoder.Version;
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyProtocolDecoderTest {
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] v2Header() throws Exception {
+        return new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(new InetSocketAddress("10.0.0.1", 1000))
+                .destination(new InetSocketAddress("10.0.0.2", 2000))
+                .build();
+    }
+
+    @Test
+    void detectVersions() throws Exception {
+        byte[] v1 = ascii("PROXY TCP4 1.2.3.4 5.6.7.8 10 20\r\n");
+        byte[] v2 = v2Header();
+        byte[] none = ascii("hello");
+
+        assertEquals(Version.V1, ProxyProtocolDecoder.detect(v1, 0, v1.length));
+        assertEquals(Version.V2, ProxyProtocolDecoder.detect(v2, 0, v2.length));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(none, 0, none.length));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(new byte[0], 0, 0));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(ascii("PROXIMITY"), 0, 9));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(ascii("\r\nGET"), 0, 5));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(v2.length);
+        direct.put(v2).flip();
+        assertEquals(Version.V2, ProxyProtocolDecoder.detect(direct));
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    void detectPartialSignature() throws Exception {
+        byte[] v2 = v2Header();
+        assertEquals(Version.V2, ProxyProtocolDecoder.detect(v2, 0, 5));
+        assertEquals(Version.V1, ProxyProtocolDecoder.detect(ascii("PRO"), 0, 3));
+    }
+
+    @Test
+    void completeInputNeedsWholeSignature() throws Exception {
+        byte[] v2 = v2Header();
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(v2, 0, 5, true));
+        assertEquals(Version.V2, ProxyProtocolDecoder.detect(v2, 0, 12, true));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(ascii("P"), 0, 1, true));
+        assertEquals(Version.NONE, ProxyProtocolDecoder.detect(ByteBuffer.wrap(ascii("\r\n")), true));
+        assertEquals(Version.V1, ProxyProtocolDecoder.detect(ascii("PROXY "), 0, 6, true));
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(0, ProxyProtocolDecoder.tryDecode(v2, 0, 10, view, true));
+        assertEquals(0, ProxyProtocolDecoder.tryDecode(ByteBuffer.wrap(ascii("PRO")), view, true));
+        assertEquals(ParseStatus.TRUNCATED, ProxyProtocolDecoder.tryDecode(v2, 0, 14, view, true));
+    }
+
+    @Test
+    void tryDecodeDispatches() throws Exception {
+        ProxyHeaderView view = new ProxyHeaderView();
+
+        byte[] v1 = ascii("PROXY TCP4 1.2.3.4 5.6.7.8 10 20\r\n");
+        assertEquals(v1.length, ProxyProtocolDecoder.tryDecode(v1, 0, v1.length, view));
+        assertEquals(ProxyHeader.TransportProtocol.STREAM, view.getProtocol());
+
+        byte[] v2 = v2Header();
+        assertEquals(v2.length, ProxyProtocolDecoder.tryDecode(ByteBuffer.wrap(v2), view));
+        assertEquals(ProxyHeader.TransportProtocol.DGRAM, view.getProtocol());
+        assertEquals(0x0A000001, view.getSourceIPv4());
+
+        byte[] none = ascii("direct client payload");
+        assertEquals(0, ProxyProtocolDecoder.tryDecode(none, 0, none.length, view));
+        assertEquals(ParseStatus.TRUNCATED, ProxyProtocolDecoder.tryDecode(v2, 0, 10, view));
+    }
+
+    @Test
+    void parseReturnsNullWithoutHeader() throws Exception {
+        byte[] none = ascii("direct client payload");
+        assertNull(ProxyProtocolDecoder.parse(none, 0, none.length));
+
+        byte[] v1 = ascii("PROXY TCP6 ::1 ::2 10 20\r\n");
+        assertEquals(new InetSocketAddress("::1", 10), ProxyProtocolDecoder.parse(v1, 0, v1.length).getSourceAddress());
+
+        byte[] bad = ascii("PROXY TCP4 1.2.3.4\r\n");
+        assertThrows(ProxyProtocolParseException.class, () -> ProxyProtocolDecoder.parse(bad, 0, bad.length));
+    }
+}
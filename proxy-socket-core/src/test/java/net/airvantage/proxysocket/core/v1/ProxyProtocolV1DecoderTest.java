@@ -0,0 +1,171 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of the Proxy Protocol v1 text decoder
+ */
+package net.airvantage.proxysocket.core.v1;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyProtocolV1DecoderTest {
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int tryDecode(String s, ProxyHeaderView view) {
+        byte[] data = ascii(s);
+        return ProxyProtocolV1Decoder.tryDecode(data, 0, data.length, view);
+    }
+
+    @Test
+    void parseTcp4() throws Exception {
+        byte[] data = ascii("PROXY TCP4 192.168.0.1 192.168.0.11 56324 443\r\nGET / HTTP/1.1\r\n");
+        ProxyHeader header = ProxyProtocolV1Decoder.parse(data, 0, data.length);
+
+        assertEquals(ProxyHeader.Command.PROXY, header.getCommand());
+        assertEquals(ProxyHeader.AddressFamily.AF_INET, header.getFamily());
+        assertEquals(ProxyHeader.TransportProtocol.STREAM, header.getProtocol());
+        assertEquals(new InetSocketAddress("192.168.0.1", 56324), header.getSourceAddress());
+        assertEquals(new InetSocketAddress("192.168.0.11", 443), header.getDestinationAddress());
+        assertEquals(47, header.getHeaderLength());
+        assertTrue(header.getTlvs().isEmpty());
+    }
+
+    @Test
+    void decodeTcp4IntoView() {
+        ProxyHeaderView view = new ProxyHeaderView();
+        int len = tryDecode("PROXY TCP4 255.0.10.1 0.0.0.0 65535 0\r\n", view);
+
+        assertEquals(39, len);
+        assertEquals(0xFF000A01, view.getSourceIPv4());
+        assertEquals(0, view.getDestinationIPv4());
+        assertEquals(65535, view.getSourcePort());
+        assertEquals(0, view.getDestinationPort());
+        assertFalse(view.tlvs().next());
+    }
+
+    @Test
+    void parseTcp6() throws Exception {
+        byte[] data = ascii("PROXY TCP6 2001:db8::1 fe80:0:0:0:0:0:0:ab 1234 5678\r\n");
+        ProxyHeader header = ProxyProtocolV1Decoder.parse(data, 0, data.length);
+
+        assertEquals(ProxyHeader.AddressFamily.AF_INET6, header.getFamily());
+        assertEquals(new InetSocketAddress("2001:db8::1", 1234), header.getSourceAddress());
+        assertEquals(new InetSocketAddress("fe80::ab", 5678), header.getDestinationAddress());
+    }
+
+    @Test
+    void decodeTcp6Forms() {
+        ProxyHeaderView view = new ProxyHeaderView();
+
+        assertTrue(tryDecode("PROXY TCP6 :: 1::8 1 2\r\n", view) > 0);
+        assertEquals(0, view.getSourceIPv6High());
+        assertEquals(0, view.getSourceIPv6Low());
+        assertEquals(0x0001000000000000L, view.getDestinationIPv6High());
+        assertEquals(0x0000000000000008L, view.getDestinationIPv6Low());
+
+        assertTrue(tryDecode("PROXY TCP6 ::FFFF:10.0.0.1 1:2:3:4:5:6:7:8 1 2\r\n", view) > 0);
+        assertEquals(0, view.getSourceIPv6High());
+        assertEquals(0x0000FFFF0A000001L, view.getSourceIPv6Low());
+        assertEquals(0x0001000200030004L, view.getDestinationIPv6High());
+        assertEquals(0x0005000600070008L, view.getDestinationIPv6Low());
+
+        assertTrue(tryDecode("PROXY TCP6 1:: ::1 1 2\r\n", view) > 0);
+        assertEquals(0x0001000000000000L, view.getSourceIPv6High());
+        assertEquals(1, view.getDestinationIPv6Low());
+    }
+
+    @Test
+    void parseUnknown() throws Exception {
+        byte[] data = ascii("PROXY UNKNOWN ffff:f...f:ffff 1.2.3.4 whatever\r\n");
+        ProxyHeader header = ProxyProtocolV1Decoder.parse(data, 0, data.length);
+
+        assertEquals(ProxyHeader.Command.PROXY, header.getCommand());
+        assertEquals(ProxyHeader.AddressFamily.AF_UNSPEC, header.getFamily());
+        assertNull(header.getSourceAddress());
+        assertEquals(data.length, header.getHeaderLength());
+
+        assertEquals(15, tryDecode("PROXY UNKNOWN\r\n", new ProxyHeaderView()));
+    }
+
+    @Test
+    void parseFromBuffers() throws Exception {
+        byte[] data = ascii("xxPROXY TCP4 1.2.3.4 5.6.7.8 10 20\r\npayload");
+
+        ByteBuffer heap = ByteBuffer.wrap(data);
+        heap.position(2);
+        ProxyHeader header = ProxyProtocolV1Decoder.parse(heap);
+        assertEquals(new InetSocketAddress("1.2.3.4", 10), header.getSourceAddress());
+        assertEquals(2, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).position(2);
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(34, ProxyProtocolV1Decoder.tryDecode(direct, view));
+        assertEquals(0x05060708, view.getDestinationIPv4());
+        assertEquals(20, view.getDestinationPort());
+    }
+
+    @Test
+    void truncatedLine() {
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(ParseStatus.TRUNCATED, tryDecode("PROX", view));
+        assertEquals(ParseStatus.TRUNCATED, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 10 20", view));
+        assertEquals(ParseStatus.TRUNCATED, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 10 20\r", view));
+    }
+
+    @Test
+    void invalidLines() {
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(ParseStatus.INVALID_SIGNATURE, tryDecode("GET / HTTP/1.1\r\n", view));
+        assertEquals(ParseStatus.INVALID_SIGNATURE, tryDecode("PRX", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS_FAMILY, tryDecode("PROXY UDP4 1.2.3.4 5.6.7.8 10 20\r\n", view));
+        assertEquals(ParseStatus.INVALID_FORMAT, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 10\r\n", view));
+        assertEquals(ParseStatus.INVALID_FORMAT, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 10 20 30\r\n", view));
+        assertEquals(ParseStatus.INVALID_FORMAT, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 10 20\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP4 1.2.3.256 5.6.7.8 10 20\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP4 1.2.3 5.6.7.8 10 20\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 65536 20\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP4 1.2.3.4 5.6.7.8 -1 20\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP4 ::1 5.6.7.8 1 2\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP6 1::2::3 ::1 1 2\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP6 1:2:3:4:5:6:7 ::1 1 2\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP6 12345::1 ::1 1 2\r\n", view));
+        assertEquals(ParseStatus.INVALID_ADDRESS, tryDecode("PROXY TCP6 1: ::1 1 2\r\n", view));
+    }
+
+    @Test
+    void lineLongerThanMaximumIsRejected() {
+        String line = "PROXY UNKNOWN " + "x".repeat(120) + "\r\n";
+        assertEquals(ParseStatus.INVALID_FORMAT, tryDecode(line, new ProxyHeaderView()));
+    }
+
+    @Test
+    void parseThrowsSharedStatusException() {
+        byte[] data = ascii("PROXY TCP4 1.2.3.4\r\n");
+        ProxyProtocolParseException e = assertThrows(ProxyProtocolParseException.class,
+                () -> ProxyProtocolV1Decoder.parse(data, 0, data.length));
+        assertEquals(ParseStatus.INVALID_FORMAT, e.getStatus());
+    }
+
+    @Test
+    void invalidArguments() {
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertThrows(IllegalArgumentException.class, () -> ProxyProtocolV1Decoder.tryDecode((byte[]) null, 0, 0, view));
+        assertThrows(IllegalArgumentException.class, () -> ProxyProtocolV1Decoder.tryDecode(new byte[4], 2, 4, view));
+        assertThrows(IllegalArgumentException.class, () -> ProxyProtocolV1Decoder.tryDecode(new byte[4], 2, Integer.MAX_VALUE, view));
+        assertThrows(IllegalArgumentException.class, () -> ProxyProtocolV1Decoder.tryDecode(ByteBuffer.allocate(4), null));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of in-place decoding into ProxyHeaderView
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyHeaderViewTest {
+
+    @Test
+    void decodeIPv4IntoView() throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(new InetSocketAddress("10.1.2.3", 4000))
+                .destination(new InetSocketAddress("192.168.0.1", 5683))
+                .build();
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        int headerLength = ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+
+        assertEquals(header.length, headerLength);
+        assertEquals(header.length, view.getHeaderLength());
+        assertTrue(view.isProxy());
+        assertEquals(ProxyHeader.AddressFamily.AF_INET, view.getFamily());
+        assertEquals(ProxyHeader.TransportProtocol.DGRAM, view.getProtocol());
+        assertEquals(0x0A010203, view.getSourceIPv4());
+        assertEquals(0xC0A80001, view.getDestinationIPv4());
+        assertEquals(4000, view.getSourcePort());
+        assertEquals(5683, view.getDestinationPort());
+        assertEquals(new InetSocketAddress("10.1.2.3", 4000), view.getSourceAddress());
+        assertEquals(new InetSocketAddress("192.168.0.1", 5683), view.getDestinationAddress());
+    }
+
+    @Test
+    void decodeIPv6IntoViewFromDirectBuffer() throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET6)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(new InetSocketAddress("2001:db8::1", 1000))
+                .destination(new InetSocketAddress("::2", 2000))
+                .build();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(header.length);
+        buffer.put(header).flip();
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(buffer, view);
+
+        assertEquals(0x20010DB800000000L, view.getSourceIPv6High());
+        assertEquals(1L, view.getSourceIPv6Low());
+        assertEquals(0L, view.getDestinationIPv6High());
+        assertEquals(2L, view.getDestinationIPv6Low());
+        assertEquals(new InetSocketAddress("2001:db8::1", 1000), view.getSourceAddress());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void viewIsReusedAcrossDecodes() throws Exception {
+        byte[] ipv6 = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET6)
+                .socket(ProxyHeader.TransportProtocol.STREAM)
+                .source(new InetSocketAddress("::1", 1))
+                .destination(new InetSocketAddress("::2", 2))
+                .build();
+        byte[] local = new AwsProxyEncoderHelper()
+                .command(ProxyHeader.Command.LOCAL)
+                .build();
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(ipv6, 0, ipv6.length, view);
+        ProxyProtocolV2Decoder.decode(local, 0, local.length, view);
+
+        assertTrue(view.isLocal());
+        assertFalse(view.hasAddresses());
+        assertEquals(0L, view.getSourceIPv6Low());
+        assertEquals(0, view.getSourcePort());
+        assertNull(view.getSourceAddress());
+    }
+
+    @Test
+    void toProxyHeaderMatchesParse() throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.STREAM)
+                .source(new InetSocketAddress("127.0.0.1", 12345))
+                .destination(new InetSocketAddress("127.0.0.2", 443))
+                .build();
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+        ProxyHeader fromView = view.toProxyHeader();
+        ProxyHeader parsed = ProxyProtocolV2Decoder.parse(header, 0, header.length);
+
+        assertEquals(parsed.getCommand(), fromView.getCommand());
+        assertEquals(parsed.getFamily(), fromView.getFamily());
+        assertEquals(parsed.getProtocol(), fromView.getProtocol());
+        assertEquals(parsed.getSourceAddress(), fromView.getSourceAddress());
+        assertEquals(parsed.getDestinationAddress(), fromView.getDestinationAddress());
+        assertEquals(parsed.getHeaderLength(), fromView.getHeaderLength());
+    }
+}
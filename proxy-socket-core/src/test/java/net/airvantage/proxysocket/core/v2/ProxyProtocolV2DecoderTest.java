@@ -5,9 +5,11 @@
  * Validation of ProxyProtocolV2Decoder against hardcoded headers for known cases
  */
 package net.airvantage.proxysocket.core.v2;
+import net.airvantage.proxysocket.core.ParseStatus;
 import net.airvantage.proxysocket.core.ProxyProtocolParseException;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -196,6 +198,259 @@ class ProxyProtocolV2DecoderTest {
         assertThrows(ProxyProtocolParseException.class, () -> ProxyProtocolV2Decoder.parse(h, 0, h.length, true));
     }
 
-}
+    @Test
+    void decodeIPv4FromHeapByteBuffer() throws Exception {
+        byte[] h = ipv4UdpHeader();
+        byte[] packet = new byte[h.length + 8];
+        System.arraycopy(h, 0, packet, 4, h.length);
+        ByteBuffer buffer = ByteBuffer.wrap(packet, 4, h.length + 2);
+
+        ProxyHeader parsed = ProxyProtocolV2Decoder.parse(buffer);
+        assertEquals(12345, parsed.getSourceAddress().getPort());
+        assertEquals(443, parsed.getDestinationAddress().getPort());
+        assertEquals(h.length, parsed.getHeaderLength());
+        assertEquals(4, buffer.position(), "position must be untouched");
+        assertEquals(h.length + 6, buffer.limit());
+    }
+
+    @Test
+    void decodeIPv4FromDirectByteBufferAndConsume() throws Exception {
+        byte[] h = ipv4UdpHeader();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(h.length + 16);
+        buffer.position(3);
+        buffer.put(h).put(new byte[]{1, 2, 3});
+        buffer.flip().position(3);
+
+        ProxyHeader parsed = ProxyProtocolV2Decoder.parse(buffer, false, true);
+        assertEquals(ProxyHeader.TransportProtocol.DGRAM, parsed.getProtocol());
+        assertEquals(12345, parsed.getSourceAddress().getPort());
+        assertEquals(3 + h.length, buffer.position());
+        assertEquals(3, buffer.remaining());
+    }
+
+    @Test
+    void decodeTlvFromReadOnlyByteBuffer() throws Exception {
+        byte[] tlv = new byte[]{ (byte) 0xEE, 0x00, 0x02, 0x0A, 0x0B };
+        byte[] h = new byte[SIG.length + 4 + tlv.length];
+        int p = 0; System.arraycopy(SIG, 0, h, p, SIG.length); p += SIG.length;
+        h[p++] = 0x21; h[p++] = 0x00;
+        h[p++] = 0x00; h[p++] = (byte) tlv.length;
+        System.arraycopy(tlv, 0, h, p, tlv.length);
+
+        ProxyHeader parsed = ProxyProtocolV2Decoder.parse(ByteBuffer.wrap(h).asReadOnlyBuffer(), true);
+        assertEquals(1, parsed.getTlvs().size());
+        assertArrayEquals(new byte[]{0x0A, 0x0B}, parsed.getTlvs().get(0).getValue());
+    }
 
+    @Test
+    void byteBufferLimitIsRespected() {
+        byte[] h = ipv4UdpHeader();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(h.length);
+        buffer.put(h).flip().limit(h.length - 1);
+
+        assertThrows(ProxyProtocolParseException.class, () -> ProxyProtocolV2Decoder.parse(buffer, false, true));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void headerLengthOfValidHeader() {
+        byte[] h = ipv4UdpHeader();
+        byte[] packet = new byte[h.length + 10];
+        System.arraycopy(h, 0, packet, 2, h.length);
+
+        assertEquals(h.length, ProxyProtocolV2Decoder.headerLength(packet, 2, packet.length - 2));
+        assertEquals(h.length, ProxyProtocolV2Decoder.headerLength(ByteBuffer.wrap(packet, 2, h.length)));
+    }
+
+    @Test
+    void headerLengthReturnsNegativeCodes() {
+        byte[] hello = "hello, this is not a header".getBytes(StandardCharsets.UTF_8);
+        assertEquals(ParseStatus.INVALID_SIGNATURE, ProxyProtocolV2Decoder.headerLength(hello, 0, hello.length));
+
+        byte[] h = ipv4UdpHeader();
+        assertEquals(ParseStatus.TRUNCATED, ProxyProtocolV2Decoder.headerLength(h, 0, 10));
+        assertEquals(ParseStatus.TRUNCATED, ProxyProtocolV2Decoder.headerLength(h, 0, h.length - 1));
+
+        h[12] = 0x31; // v3
+        assertEquals(ParseStatus.INVALID_VERSION, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+        h[12] = 0x22; // v2, command 2
+        assertEquals(ParseStatus.INVALID_COMMAND, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+        h[12] = 0x21;
+        h[13] = 0x42; // family 4
+        assertEquals(ParseStatus.INVALID_ADDRESS_FAMILY, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+        h[13] = 0x13; // protocol 3
+        assertEquals(ParseStatus.INVALID_TRANSPORT_PROTOCOL, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+        h[13] = 0x22; // INET6 needs 36 bytes, only 12 declared
+        assertEquals(ParseStatus.TRUNCATED_ADDRESS, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+    }
+
+    @Test
+    void decodeSourceOnlySkipsDestination() {
+        byte[] h = ipv4UdpHeader();
+        ProxyHeaderView view = new ProxyHeaderView();
+
+        assertEquals(h.length, ProxyProtocolV2Decoder.decodeSourceOnly(h, 0, h.length, view));
+        assertEquals(0x7F000001, view.getSourceIPv4());
+        assertEquals(12345, view.getSourcePort());
+        assertEquals(0, view.getDestinationIPv4());
+        assertEquals(0, view.getDestinationPort());
+
+        byte[] hello = "not-a-proxy-header".getBytes(StandardCharsets.UTF_8);
+        assertEquals(ParseStatus.INVALID_SIGNATURE, ProxyProtocolV2Decoder.decodeSourceOnly(hello, 0, hello.length, view));
+    }
+
+    @Test
+    void tryDecodeReturnsStatusInsteadOfThrowing() {
+        byte[] hello = "hello, this is not a header".getBytes(StandardCharsets.UTF_8);
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(ParseStatus.INVALID_SIGNATURE, ProxyProtocolV2Decoder.tryDecode(hello, 0, hello.length, view));
+        assertEquals(ParseStatus.TRUNCATED, ProxyProtocolV2Decoder.tryDecode(ByteBuffer.wrap(hello, 0, 4), view));
+
+        byte[] h = ipv4UdpHeader();
+        assertEquals(h.length, ProxyProtocolV2Decoder.tryDecode(h, 0, h.length, view));
+        assertEquals(443, view.getDestinationPort());
+    }
 
+    @Test
+    void thrownParseExceptionsAreSharedAndStackless() {
+        byte[] hello = "hello, this is not a header".getBytes(StandardCharsets.UTF_8);
+        ProxyProtocolParseException first = assertThrows(ProxyProtocolParseException.class,
+                () -> ProxyProtocolV2Decoder.parse(hello, 0, hello.length));
+        ProxyProtocolParseException second = assertThrows(ProxyProtocolParseException.class,
+                () -> ProxyProtocolV2Decoder.parse(hello, 0, hello.length));
+
+        assertSame(first, second);
+        assertEquals(ParseStatus.INVALID_SIGNATURE, first.getStatus());
+        assertEquals("Invalid signature", first.getMessage());
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    @Test
+    void everySignatureByteIsChecked() {
+        byte[] h = ipv4UdpHeader();
+        ByteBuffer direct = ByteBuffer.allocateDirect(h.length);
+        for (int i = 0; i < SIG.length; i++) {
+            h[i] ^= 0x40;
+            assertEquals(ParseStatus.INVALID_SIGNATURE, ProxyProtocolV2Decoder.headerLength(h, 0, h.length), "byte " + i);
+            direct.clear();
+            direct.put(h).flip();
+            assertEquals(ParseStatus.INVALID_SIGNATURE, ProxyProtocolV2Decoder.headerLength(direct), "byte " + i);
+            h[i] ^= 0x40;
+        }
+        assertEquals(h.length, ProxyProtocolV2Decoder.headerLength(h, 0, h.length));
+    }
+
+    private static byte[] ipv4UdpHeader() {
+        byte[] h = new byte[SIG.length + 4 + 12];
+        int p = 0; System.arraycopy(SIG, 0, h, p, SIG.length); p += SIG.length;
+        h[p++] = 0x21; h[p++] = 0x12; // v2 PROXY, INET4 + DGRAM
+        h[p++] = 0x00; h[p++] = 0x0C;
+        byte[] addr = new byte[]{
+                0x7F, 0x00, 0x00, 0x01,
+                0x7F, 0x00, 0x00, 0x02,
+                0x30, 0x39,
+                0x01, (byte) 0xBB
+        };
+        System.arraycopy(addr, 0, h, p, addr.length);
+        return h;
+    }
+
+    @Test
+    void verifyCrc32cDetectsCorruption() throws Exception {
+        byte[] packet = new byte[128];
+        ProxyProtocolV2Encoder.writeIPv6(packet, 0, ProxyHeader.TransportProtocol.STREAM, 1, 2, 3, 4, 5, 6);
+        int len = ProxyProtocolV2Encoder.appendCrc32c(packet, 0);
+        ProxyHeaderView view = new ProxyHeaderView();
+
+        ProxyProtocolV2Decoder.decode(packet, 0, len, view);
+        assertTrue(ProxyProtocolV2Decoder.verifyCrc32c(view));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(len);
+        direct.put(packet, 0, len).flip();
+        ProxyProtocolV2Decoder.decode(direct, view);
+        assertTrue(ProxyProtocolV2Decoder.verifyCrc32c(view));
+
+        packet[20] ^= 0x40;
+        ProxyProtocolV2Decoder.decode(packet, 0, len, view);
+        assertFalse(ProxyProtocolV2Decoder.verifyCrc32c(view));
+
+        // Headers without the TLV pass
+        len = ProxyProtocolV2Encoder.writeLocal(packet, 0);
+        ProxyProtocolV2Decoder.decode(packet, 0, len, view);
+        assertTrue(ProxyProtocolV2Decoder.verifyCrc32c(view));
+    }
+
+    @Test
+    void parseBatchFillsParallelArrays() {
+        byte[] v4 = new byte[64];
+        int v4Len = ProxyProtocolV2Encoder.writeIPv4(v4, 2, ProxyHeader.TransportProtocol.DGRAM, 0x0A000001, 0x0A000002, 4000, 53);
+        byte[] v6 = new byte[64];
+        ProxyProtocolV2Encoder.writeIPv6(v6, 0, ProxyHeader.TransportProtocol.STREAM, 0x20010DB800000000L, 7L, 0, 1, 5000, 443);
+        byte[] local = new byte[16];
+        ProxyProtocolV2Encoder.writeLocal(local, 0);
+        byte[] junk = "junk".getBytes(StandardCharsets.US_ASCII);
+
+        byte[][] buffers = {v4, v6, junk, local, null};
+        int[] offsets = {2, 0, 0, 0, 0};
+        int[] lengths = {v4Len + 10, v6.length, junk.length, 16, 0};
+        DecodeBatch batch = new DecodeBatch(8);
+
+        assertEquals(3, ProxyProtocolV2Decoder.parseBatch(buffers, offsets, lengths, 5, batch));
+        assertEquals(5, batch.size());
+
+        assertEquals(v4Len, batch.status()[0]);
+        assertTrue(batch.isProxyDatagram(0));
+        assertEquals(ProxyHeader.AddressFamily.AF_INET, batch.getFamily(0));
+        assertEquals(0x0A000001, batch.sourceIPv4()[0]);
+        assertEquals(4000, batch.sourcePort()[0]);
+
+        assertFalse(batch.isProxyDatagram(1));
+        assertEquals(ProxyHeader.TransportProtocol.STREAM, batch.getProtocol(1));
+        assertEquals(0x20010DB800000000L, batch.sourceIPv6High()[1]);
+        assertEquals(7L, batch.sourceIPv6Low()[1]);
+        assertEquals(5000, batch.sourcePort()[1]);
+
+        assertEquals(ParseStatus.TRUNCATED, batch.status()[2]);
+        assertEquals(ProxyHeader.Command.LOCAL, batch.getCommand(3));
+        assertEquals(ParseStatus.OTHER, batch.status()[4]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Decoder.parseBatch(buffers, offsets, lengths, 9, new DecodeBatch(8)));
+    }
+
+    @Test
+    void parseBatchClearsSourceSlotsOnReuse() {
+        byte[] v6 = new byte[64];
+        int v6Len = ProxyProtocolV2Encoder.writeIPv6(v6, 0, ProxyHeader.TransportProtocol.DGRAM, 0x20010DB800000000L, 7L, 0, 1, 5000, 443);
+        byte[] v4 = new byte[64];
+        int v4Len = ProxyProtocolV2Encoder.writeIPv4(v4, 0, ProxyHeader.TransportProtocol.DGRAM, 0x0A000001, 0x0A000002, 4000, 53);
+        byte[] local = new byte[16];
+        ProxyProtocolV2Encoder.writeLocal(local, 0);
+        DecodeBatch batch = new DecodeBatch(2);
+
+        ProxyProtocolV2Decoder.parseBatch(new byte[][]{v6, v6}, new int[2], new int[]{v6Len, v6Len}, 2, batch);
+        assertEquals(7L, batch.sourceIPv6Low()[1]);
+
+        assertEquals(2, ProxyProtocolV2Decoder.parseBatch(new byte[][]{local, v4}, new int[2], new int[]{16, v4Len}, 2, batch));
+        assertEquals(ProxyHeader.AddressFamily.AF_UNSPEC, batch.getFamily(0));
+        assertEquals(0, batch.sourceIPv4()[0]);
+        assertEquals(0L, batch.sourceIPv6High()[0]);
+        assertEquals(0L, batch.sourceIPv6Low()[0]);
+        assertEquals(0, batch.sourcePort()[0]);
+        assertEquals(0x0A000001, batch.sourceIPv4()[1]);
+        assertEquals(0L, batch.sourceIPv6High()[1]);
+        assertEquals(0L, batch.sourceIPv6Low()[1]);
+    }
+
+    @Test
+    void parseBatchRejectsOverflowingOffset() {
+        byte[] v4 = new byte[64];
+        ProxyProtocolV2Encoder.writeIPv4(v4, 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4);
+        DecodeBatch batch = new DecodeBatch(1);
+
+        assertEquals(0, ProxyProtocolV2Decoder.parseBatch(new byte[][]{v4}, new int[]{Integer.MAX_VALUE}, new int[]{16}, 1, batch));
+        assertEquals(ParseStatus.OTHER, batch.status()[0]);
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Decoder.parse(v4, Integer.MAX_VALUE, 16));
+    }
+}
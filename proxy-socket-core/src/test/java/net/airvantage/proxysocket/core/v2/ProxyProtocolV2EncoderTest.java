@@ -0,0 +1,159 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Round-trip validation of the v2 encoder against the decoder
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyProtocolV2EncoderTest {
+
+    @Test
+    void writeIPv4RoundTrip() throws Exception {
+        byte[] out = new byte[64];
+        int len = ProxyProtocolV2Encoder.writeIPv4(out, 4, ProxyHeader.TransportProtocol.DGRAM,
+                0x0A000001, 0xC0A80001, 40000, 53);
+        assertEquals(ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH, len);
+
+        ProxyHeader header = ProxyProtocolV2Decoder.parse(out, 4, len);
+        assertTrue(header.isProxy());
+        assertEquals(ProxyHeader.TransportProtocol.DGRAM, header.getProtocol());
+        assertEquals(new InetSocketAddress("10.0.0.1", 40000), header.getSourceAddress());
+        assertEquals(new InetSocketAddress("192.168.0.1", 53), header.getDestinationAddress());
+    }
+
+    @Test
+    void matchesReferenceEncoder() throws Exception {
+        byte[] reference = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET6)
+                .socket(ProxyHeader.TransportProtocol.STREAM)
+                .source(new InetSocketAddress("2001:db8::1", 1234))
+                .destination(new InetSocketAddress("2001:db8::2", 443))
+                .build();
+        ProxyHeader decoded = ProxyProtocolV2Decoder.parse(reference, 0, reference.length, true);
+
+        byte[] out = new byte[reference.length];
+        int len = ProxyProtocolV2Encoder.write(out, 0, decoded);
+        assertEquals(reference.length, len);
+        assertArrayEquals(reference, out);
+    }
+
+    @Test
+    void appendTlvPatchesLength() throws Exception {
+        byte[] out = new byte[128];
+        int len = ProxyProtocolV2Encoder.writeIPv6(out, 0, ProxyHeader.TransportProtocol.STREAM,
+                0x20010DB800000000L, 1L, 0x20010DB800000000L, 2L, 1111, 2222);
+        len = ProxyProtocolV2Encoder.appendTlv(out, 0, 0xEA, new byte[]{9, 'v', 'p', 'c'}, 1, 3);
+        len = ProxyProtocolV2Encoder.appendTlv(out, 0, 0x04, new byte[0], 0, 0);
+        assertEquals(ProxyProtocolV2Encoder.IPV6_HEADER_LENGTH + 6 + 3, len);
+
+        ProxyHeader header = ProxyProtocolV2Decoder.parse(out, 0, out.length, true);
+        assertEquals(len, header.getHeaderLength());
+        assertEquals(2, header.getTlvs().size());
+        assertArrayEquals(new byte[]{'v', 'p', 'c'}, header.findTlv(0xEA).getValue());
+        assertEquals(0, header.findTlv(0x04).getLength());
+        assertEquals(new InetSocketAddress("2001:db8::2", 2222), header.getDestinationAddress());
+    }
+
+    @Test
+    void writeIntoDirectBuffer() throws Exception {
+        ByteBuffer out = ByteBuffer.allocateDirect(128);
+        out.position(3);
+        int start = out.position();
+        ProxyProtocolV2Encoder.writeIPv4(out, ProxyHeader.TransportProtocol.DGRAM, 0x7F000001, 0x7F000002, 1, 2);
+        assertEquals(start + ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH, out.position());
+        int len = ProxyProtocolV2Encoder.appendTlv(out, start, 0xE0, new byte[]{1, 2}, 0, 2);
+        assertEquals(start + len, out.position());
+
+        out.flip().position(start);
+        ProxyHeaderView view = new ProxyHeaderView();
+        assertEquals(len, ProxyProtocolV2Decoder.decode(out, view));
+        assertEquals(0x7F000002, view.getDestinationIPv4());
+        assertEquals(2, view.findTlv(0xE0).get(1));
+    }
+
+    @Test
+    void writeFullHeaderIntoHeapSlice() throws Exception {
+        ProxyHeader header = new ProxyHeader(ProxyHeader.Command.PROXY, ProxyHeader.AddressFamily.AF_INET,
+                ProxyHeader.TransportProtocol.DGRAM, new InetSocketAddress("1.2.3.4", 5),
+                new InetSocketAddress("6.7.8.9", 10), List.of(new Tlv(0xEA, new byte[]{'x'})), 0);
+        ByteBuffer out = ByteBuffer.wrap(new byte[100], 10, 80).slice();
+        int len = ProxyProtocolV2Encoder.write(out, header);
+        assertEquals(ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH + 4, len);
+        assertEquals(len, out.position());
+
+        out.flip();
+        ProxyHeader decoded = ProxyProtocolV2Decoder.parse(out, true);
+        assertEquals(header.getSourceAddress(), decoded.getSourceAddress());
+        assertArrayEquals(new byte[]{'x'}, decoded.findTlv(0xEA).getValue());
+    }
+
+    @Test
+    void writeLocalAndUnix() throws Exception {
+        byte[] out = new byte[ProxyProtocolV2Encoder.UNIX_HEADER_LENGTH];
+        assertEquals(16, ProxyProtocolV2Encoder.writeLocal(out, 0));
+        assertTrue(ProxyProtocolV2Decoder.parse(out, 0, 16).isLocal());
+
+        ProxyHeader unix = new ProxyHeader(ProxyHeader.Command.PROXY, ProxyHeader.AddressFamily.AF_UNIX,
+                ProxyHeader.TransportProtocol.STREAM, null, null, null, 0);
+        int len = ProxyProtocolV2Encoder.write(out, 0, unix);
+        assertEquals(ProxyProtocolV2Encoder.UNIX_HEADER_LENGTH, len);
+        assertEquals(ProxyHeader.AddressFamily.AF_UNIX, ProxyProtocolV2Decoder.parse(out, 0, len).getFamily());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Encoder.writeIPv4(new byte[20], 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Encoder.writeIPv4(new byte[28], 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 70000, 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Encoder.writeLocal(ByteBuffer.allocate(8)));
+
+        byte[] out = new byte[40];
+        ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4);
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Encoder.appendTlv(out, 0, 0xEA, new byte[20], 0, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProxyProtocolV2Encoder.appendTlv(out, 0, 0x100, new byte[1], 0, 1));
+        ProxyHeader mixed = new ProxyHeader(ProxyHeader.Command.PROXY, ProxyHeader.AddressFamily.AF_INET,
+                ProxyHeader.TransportProtocol.DGRAM, new InetSocketAddress("::1", 1), new InetSocketAddress("1.2.3.4", 2), null, 0);
+        assertThrows(IllegalArgumentException.class, () -> ProxyProtocolV2Encoder.write(new byte[64], 0, mixed));
+    }
+
+    @Test
+    void appendCrc32cRoundTrip() throws Exception {
+        byte[] out = new byte[64];
+        ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4);
+        ProxyProtocolV2Encoder.appendTlv(out, 0, 0xEA, new byte[]{'a'}, 0, 1);
+        int len = ProxyProtocolV2Encoder.appendCrc32c(out, 0);
+        assertEquals(ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH + 4 + 7, len);
+
+        // Independent computation: checksum of the header with the checksum field zeroed
+        byte[] zeroed = java.util.Arrays.copyOf(out, len);
+        java.util.Arrays.fill(zeroed, len - 4, len, (byte) 0);
+        CRC32C crc = new CRC32C();
+        crc.update(zeroed);
+        int stored = ByteBuffer.wrap(out, len - 4, 4).getInt();
+        assertEquals((int) crc.getValue(), stored);
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(out, 0, len, view);
+        assertTrue(ProxyProtocolV2Decoder.verifyCrc32c(view));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(64);
+        ProxyProtocolV2Encoder.writeIPv4(direct, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4);
+        ProxyProtocolV2Encoder.appendTlv(direct, 0, 0xEA, new byte[]{'a'}, 0, 1);
+        assertEquals(len, ProxyProtocolV2Encoder.appendCrc32c(direct, 0));
+        assertEquals(stored, direct.getInt(len - 4));
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of incremental decoding over arbitrary chunks
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2StreamDecoder.State;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyProtocolV2StreamDecoderTest {
+
+    private static byte[] tcpHeader() throws Exception {
+        return new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET6)
+                .socket(ProxyHeader.TransportProtocol.STREAM)
+                .source(new InetSocketAddress("2001:db8::1", 40000))
+                .destination(new InetSocketAddress("2001:db8::2", 443))
+                .addTlv(0xEA, new byte[]{1, 2, 3})
+                .build();
+    }
+
+    @Test
+    void decodesByteByByte() throws Exception {
+        byte[] header = tcpHeader();
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+
+        for (int i = 0; i < header.length - 1; i++) {
+            assertEquals(State.NEED_MORE, decoder.feed(header, i, 1));
+            assertEquals(1, decoder.consumed());
+            if (i >= 15) {
+                assertEquals(header.length - i - 1, decoder.bytesNeeded());
+            }
+        }
+        assertEquals(State.DONE, decoder.feed(header, header.length - 1, 1));
+
+        ProxyHeaderView view = decoder.view();
+        assertEquals(header.length, view.getHeaderLength());
+        assertEquals(new InetSocketAddress("2001:db8::1", 40000), view.getSourceAddress());
+        assertNotNull(view.findTlv(0xEA));
+        assertEquals(1, decoder.toProxyHeader(true).findTlv(0xEA).getValue()[0]);
+    }
+
+    @Test
+    void leavesPayloadInBuffer() throws Exception {
+        byte[] header = tcpHeader();
+        byte[] payload = "GET / HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer stream = ByteBuffer.allocateDirect(header.length + payload.length);
+        stream.put(header).put(payload).flip();
+
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+        ByteBuffer first = stream.duplicate().limit(10);
+        assertEquals(State.NEED_MORE, decoder.feed(first));
+        assertEquals(10, first.position());
+
+        stream.position(10);
+        assertEquals(State.DONE, decoder.feed(stream));
+        assertEquals(header.length, stream.position());
+        assertEquals(header.length - 10, decoder.consumed());
+
+        // Further feeds consume nothing
+        assertEquals(State.DONE, decoder.feed(stream));
+        assertEquals(0, decoder.consumed());
+        assertEquals(header.length, stream.position());
+    }
+
+    @Test
+    void failsOnFirstWrongSignatureByte() {
+        byte[] data = "\r\nGET / HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII);
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+
+        assertEquals(State.NEED_MORE, decoder.feed(data, 0, 2));
+        assertEquals(State.ERROR, decoder.feed(data, 2, 1));
+        assertEquals(ParseStatus.INVALID_SIGNATURE, decoder.errorStatus());
+        assertEquals(0, decoder.bytesNeeded());
+        assertThrows(IllegalStateException.class, decoder::view);
+    }
+
+    @Test
+    void failsOnInvalidFixedPart() throws Exception {
+        byte[] header = tcpHeader();
+        header[12] = 0x11; // version 1
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+
+        assertEquals(State.ERROR, decoder.feed(header, 0, header.length));
+        assertEquals(ParseStatus.INVALID_VERSION, decoder.errorStatus());
+        assertEquals(16, decoder.consumed());
+    }
+
+    @Test
+    void bufferIsBoundedByAnnouncedLength() throws Exception {
+        byte[] big = new byte[60000];
+        byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET6)
+                .socket(ProxyHeader.TransportProtocol.STREAM)
+                .source(new InetSocketAddress("::1", 1))
+                .destination(new InetSocketAddress("::2", 2))
+                .addTlv(0xE0, big)
+                .build();
+        byte[] stream = new byte[header.length + 100];
+        System.arraycopy(header, 0, stream, 0, header.length);
+
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+        int pos = 0;
+        while (decoder.state() == State.NEED_MORE) {
+            decoder.feed(stream, pos, Math.min(4096, stream.length - pos));
+            pos += decoder.consumed();
+        }
+        assertEquals(State.DONE, decoder.state());
+        assertEquals(header.length, pos);
+    }
+
+    @Test
+    void resetAllowsReuse() throws Exception {
+        byte[] header = tcpHeader();
+        ProxyProtocolV2StreamDecoder decoder = new ProxyProtocolV2StreamDecoder();
+        decoder.feed(new byte[]{0x42}, 0, 1);
+        assertEquals(State.ERROR, decoder.state());
+
+        decoder.reset();
+        assertEquals(State.NEED_MORE, decoder.state());
+        assertEquals(16, decoder.bytesNeeded());
+        assertEquals(State.DONE, decoder.feed(header, 0, header.length));
+        assertEquals(443, decoder.view().getDestinationPort());
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of lazy TLV iteration over the original packet
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TlvCursorTest {
+
+    private static byte[] headerWithTlvs() throws Exception {
+        return new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(new InetSocketAddress("127.0.0.1", 1111))
+                .destination(new InetSocketAddress("127.0.0.2", 2222))
+                .addTlv(0xEA, new byte[]{0x41, 0x42})
+                .addTlv(0xE0, new byte[]{0x01, 0x02, 0x03})
+                .build();
+    }
+
+    @Test
+    void iteratesTlvsInPlace() throws Exception {
+        byte[] header = headerWithTlvs();
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+
+        TlvCursor cursor = view.tlvs();
+        boolean foundAws = false;
+        boolean foundGcp = false;
+        while (cursor.next()) {
+            if (cursor.type() == 0xEA) {
+                foundAws = true;
+                assertEquals(2, cursor.length());
+                assertSame(header, cursor.array());
+                assertEquals(0x41, header[cursor.valueOffset()]);
+            } else if (cursor.type() == 0xE0) {
+                foundGcp = true;
+                assertEquals(0x03, cursor.valueByte(2));
+            }
+        }
+        assertTrue(foundAws);
+        assertTrue(foundGcp);
+        assertFalse(cursor.isMalformed());
+    }
+
+    @Test
+    void findTlvReturnsZeroCopySlice() throws Exception {
+        byte[] header = headerWithTlvs();
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+
+        ByteBuffer value = view.findTlv(0xE0);
+        assertNotNull(value);
+        assertTrue(value.isReadOnly());
+        assertEquals(3, value.remaining());
+        assertEquals(0x01, value.get(0));
+
+        // Slice shares the packet storage
+        TlvCursor cursor = view.tlvs();
+        assertTrue(cursor.find(0xE0));
+        header[cursor.valueOffset()] = 0x7F;
+        assertEquals(0x7F, value.get(0));
+
+        assertNull(view.findTlv(0x30));
+    }
+
+    @Test
+    void findTlvFromDirectBuffer() throws Exception {
+        byte[] header = headerWithTlvs();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(header.length);
+        buffer.put(header).flip();
+
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(buffer, view);
+
+        ByteBuffer value = view.findTlv(0xEA);
+        assertNotNull(value);
+        assertEquals("AB", StandardCharsets.US_ASCII.decode(value).toString());
+    }
+
+    @Test
+    void truncatedTlvStopsIteration() {
+        byte[] region = new byte[]{
+                0x04, 0x00, 0x01, 0x00,       // NOOP, 1 byte
+                0x02, 0x00, 0x10, 0x61, 0x62  // AUTHORITY, declared 16 bytes, only 2 present
+        };
+        TlvCursor cursor = new TlvCursor().reset(region, 0, region.length);
+
+        assertTrue(cursor.next());
+        assertEquals(0x04, cursor.type());
+        assertFalse(cursor.next());
+        assertTrue(cursor.isMalformed());
+
+        cursor.rewind();
+        assertFalse(cursor.isMalformed());
+        assertTrue(cursor.find(0x04));
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ *
+ * Validation of typed TLV decoding and caching
+ */
+package net.airvantage.proxysocket.core.v2;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WellKnownTlvsTest {
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int append(byte[] out, int type, byte[] value) {
+        return ProxyProtocolV2Encoder.appendTlv(out, 0, type, value, 0, value.length);
+    }
+
+    private static byte[] sslValue() {
+        ByteBuffer ssl = ByteBuffer.allocate(64);
+        ssl.put((byte) 0x07).putInt(0);
+        ssl.put((byte) Tlv.PP2_SUBTYPE_SSL_VERSION).putShort((short) 7).put(ascii("TLSv1.3"));
+        ssl.put((byte) Tlv.PP2_SUBTYPE_SSL_CN).putShort((short) 6).put(ascii("client"));
+        ssl.put((byte) Tlv.PP2_SUBTYPE_SSL_CIPHER).putShort((short) 6).put(ascii("AES128"));
+        byte[] value = new byte[ssl.position()];
+        ssl.flip().get(value);
+        return value;
+    }
+
+    private static byte[] fullHeader() {
+        byte[] out = new byte[512];
+        ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.STREAM, 1, 2, 3, 4);
+        append(out, Tlv.PP2_TYPE_ALPN, ascii("h2"));
+        append(out, Tlv.PP2_TYPE_AUTHORITY, "exämple.com".getBytes(StandardCharsets.UTF_8));
+        append(out, Tlv.PP2_TYPE_UNIQUE_ID, new byte[]{'i', 'd', (byte) 0xFF});
+        append(out, Tlv.PP2_TYPE_SSL, sslValue());
+        append(out, Tlv.PP2_TYPE_NETNS, ascii("blue"));
+        byte[] aws = ascii("\u0001vpce-08d2bf15fac5001c9");
+        append(out, Tlv.PP2_TYPE_AWS, aws);
+        append(out, Tlv.PP2_TYPE_AZURE, new byte[]{0x01, 0x04, 0x03, 0x02, (byte) 0x81});
+        int len = append(out, Tlv.PP2_TYPE_GCP, new byte[]{(byte) 0x80, 0, 0, 0, 0, 0, 0, 0x2A});
+        return java.util.Arrays.copyOf(out, len);
+    }
+
+    @Test
+    void decodesAllWellKnownTypes() throws Exception {
+        byte[] header = fullHeader();
+        WellKnownTlvs tlvs = ProxyProtocolV2Decoder.parse(header, 0, header.length, true).getWellKnownTlvs();
+
+        assertEquals("h2", tlvs.getAlpn());
+        assertEquals("exämple.com", tlvs.getAuthority());
+        assertEquals("idÿ", tlvs.getUniqueId());
+        assertEquals("blue", tlvs.getNetns());
+        assertEquals("vpce-08d2bf15fac5001c9", tlvs.getAwsVpcEndpointId());
+        assertEquals(0x81020304L, tlvs.getAzureLinkId().getAsLong());
+        assertEquals(0x800000000000002AL, tlvs.getGcpConnectionId().getAsLong());
+
+        WellKnownTlvs.Ssl ssl = tlvs.getSsl();
+        assertTrue(ssl.isClientSsl());
+        assertTrue(ssl.isClientCertConnection());
+        assertTrue(ssl.isClientCertSession());
+        assertTrue(ssl.isVerified());
+        assertEquals("TLSv1.3", ssl.getVersion());
+        assertEquals("client", ssl.getCommonName());
+        assertEquals("AES128", ssl.getCipher());
+        assertNull(ssl.getKeyAlgorithm());
+    }
+
+    @Test
+    void resultIsCachedOnHeader() throws Exception {
+        byte[] header = fullHeader();
+        ProxyHeader parsed = ProxyProtocolV2Decoder.parse(header, 0, header.length, true);
+        WellKnownTlvs first = parsed.getWellKnownTlvs();
+        assertSame(first, parsed.getWellKnownTlvs());
+        assertSame(first.getSsl(), parsed.getWellKnownTlvs().getSsl());
+        assertSame(first.getGcpConnectionId(), first.getGcpConnectionId());
+        assertSame(first.getAzureLinkId(), first.getAzureLinkId());
+    }
+
+    @Test
+    void decodesFromViewUntilRefilled() throws Exception {
+        byte[] header = fullHeader();
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+
+        WellKnownTlvs first = view.wellKnownTlvs();
+        assertEquals("h2", first.getAlpn());
+        assertSame(first, view.wellKnownTlvs());
+
+        byte[] plain = new byte[32];
+        int len = ProxyProtocolV2Encoder.writeIPv4(plain, 0, ProxyHeader.TransportProtocol.DGRAM, 1, 2, 3, 4);
+        ProxyProtocolV2Decoder.decode(plain, 0, len, view);
+        assertNull(view.wellKnownTlvs().getAlpn());
+        assertTrue(view.wellKnownTlvs().getGcpConnectionId().isEmpty());
+    }
+
+    @Test
+    void decodesFromDirectBufferView() throws Exception {
+        byte[] header = fullHeader();
+        ByteBuffer direct = ByteBuffer.allocateDirect(header.length + 4);
+        direct.position(4);
+        direct.put(header).flip().position(4);
+        ProxyHeaderView view = new ProxyHeaderView();
+        ProxyProtocolV2Decoder.decode(direct, view);
+
+        WellKnownTlvs tlvs = view.wellKnownTlvs();
+        assertEquals(0x800000000000002AL, tlvs.getGcpConnectionId().getAsLong());
+        assertEquals(0x81020304L, tlvs.getAzureLinkId().getAsLong());
+        assertEquals("exämple.com", tlvs.getAuthority());
+        assertEquals("vpce-08d2bf15fac5001c9", tlvs.getAwsVpcEndpointId());
+        assertEquals("client", tlvs.getSsl().getCommonName());
+        assertSame(tlvs.getSsl(), tlvs.getSsl());
+    }
+
+    @Test
+    void absentOrMalformedValuesAreNull() throws Exception {
+        byte[] out = new byte[128];
+        ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.STREAM, 1, 2, 3, 4);
+        append(out, Tlv.PP2_TYPE_SSL, new byte[]{1, 0});
+        append(out, Tlv.PP2_TYPE_AWS, new byte[]{0x02, 'x'});
+        int len = append(out, Tlv.PP2_TYPE_GCP, new byte[]{1, 2, 3});
+
+        WellKnownTlvs tlvs = ProxyProtocolV2Decoder.parse(out, 0, len, true).getWellKnownTlvs();
+        assertNull(tlvs.getSsl());
+        assertNull(tlvs.getAwsVpcEndpointId());
+        assertTrue(tlvs.getGcpConnectionId().isEmpty());
+        assertTrue(tlvs.getAzureLinkId().isEmpty());
+
+        // Without parsed TLVs, nothing is decoded
+        assertNull(ProxyProtocolV2Decoder.parse(out, 0, len).getWellKnownTlvs().getSsl());
+    }
+}
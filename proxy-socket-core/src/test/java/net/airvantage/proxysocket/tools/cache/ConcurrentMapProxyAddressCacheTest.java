@@ -69,6 +69,22 @@ class ConcurrentMapProxyAddressCacheTest {
         assertEquals(proxyAddr2, cache.get(clientAddr2));
     }
 
+    @Test
+    void testVersionChangesOnlyWhenMappingsChange() {
+        long initial = cache.version();
+        cache.put(clientAddr1, proxyAddr1);
+        cache.put(clientAddr1, proxyAddr1);
+        cache.invalidate(clientAddr2);
+        assertEquals(initial, cache.version());
+
+        cache.put(clientAddr1, proxyAddr2);
+        assertEquals(initial + 1, cache.version());
+        cache.invalidate(clientAddr1);
+        assertEquals(initial + 2, cache.version());
+        cache.clear();
+        assertEquals(initial + 3, cache.version());
+    }
+
     @Test
     void testInvalidateNonExistentAddress() {
         cache.invalidate(clientAddr1);
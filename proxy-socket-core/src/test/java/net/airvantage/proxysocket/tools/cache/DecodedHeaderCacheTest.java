@@ -0,0 +1,95 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.cache;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Encoder;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecodedHeaderCacheTest {
+
+    private static byte[] packet(int sourceIPv4, int sourcePort, String payload) {
+        byte[] out = new byte[64];
+        int len = ProxyProtocolV2Encoder.writeIPv4(out, 0, ProxyHeader.TransportProtocol.DGRAM,
+                sourceIPv4, 0x0A000002, sourcePort, 5683);
+        byte[] p = payload.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(p, 0, out, len, p.length);
+        return java.util.Arrays.copyOf(out, len + p.length);
+    }
+
+    @Test
+    void testIdenticalHeaderBytesHit() {
+        DecodedHeaderCache cache = new DecodedHeaderCache(64, false);
+        byte[] first = packet(0x0A000001, 4000, "one");
+        byte[] second = packet(0x0A000001, 4000, "a different payload");
+
+        ProxyHeader header = cache.get(first, 0, first.length);
+        assertEquals(new InetSocketAddress("10.0.0.1", 4000), header.getSourceAddress());
+        assertEquals(ProxyProtocolV2Encoder.IPV4_HEADER_LENGTH, header.getHeaderLength());
+
+        assertSame(header, cache.get(second, 0, second.length));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testDifferentHeaderBytesMiss() {
+        DecodedHeaderCache cache = new DecodedHeaderCache(64, false);
+        byte[] a = packet(0x0A000001, 4000, "x");
+        byte[] b = packet(0x0A000001, 4001, "x");
+
+        ProxyHeader ha = cache.get(a, 0, a.length);
+        ProxyHeader hb = cache.get(b, 0, b.length);
+        assertNotSame(ha, hb);
+        assertEquals(4001, hb.getSourceAddress().getPort());
+        assertEquals(0, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void testCacheIsBoundedAndVerifiesBytes() {
+        DecodedHeaderCache cache = new DecodedHeaderCache(1, false);
+        assertEquals(1, cache.capacity());
+        for (int i = 0; i < 100; i++) {
+            byte[] p = packet(0x0A000000 + i, 1000 + i, "");
+            assertEquals(1000 + i, cache.get(p, 0, p.length).getSourceAddress().getPort());
+        }
+        cache.clear();
+        assertThrows(IllegalArgumentException.class, () -> new DecodedHeaderCache(0, false));
+    }
+
+    @Test
+    void testInvalidDataReturnsNull() {
+        DecodedHeaderCache cache = new DecodedHeaderCache(8, true);
+        byte[] junk = "not-a-proxy-header".getBytes(StandardCharsets.US_ASCII);
+        assertNull(cache.get(junk, 0, junk.length));
+
+        byte[] valid = packet(0x0A000001, 4000, "");
+        assertNull(cache.get(valid, 0, valid.length - 1));
+        assertEquals(0, cache.missCount());
+    }
+
+    @Test
+    void testTryGetReportsStatus() {
+        DecodedHeaderCache cache = new DecodedHeaderCache(8, false);
+        ProxyHeader[] out = new ProxyHeader[1];
+        byte[] junk = "not-a-proxy-header".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(ParseStatus.INVALID_SIGNATURE, cache.tryGet(junk, 0, junk.length, out));
+        assertNull(out[0]);
+
+        byte[] valid = packet(0x0A000001, 4000, "payload");
+        int headerLen = cache.tryGet(valid, 0, valid.length, out);
+        assertEquals(valid.length - "payload".length(), headerLen);
+        assertEquals(headerLen, out[0].getHeaderLength());
+        assertEquals(ParseStatus.TRUNCATED, cache.tryGet(valid, 0, headerLen - 1, out));
+        assertThrows(IllegalArgumentException.class, () -> cache.tryGet(valid, 0, valid.length, new ProxyHeader[0]));
+    }
+}
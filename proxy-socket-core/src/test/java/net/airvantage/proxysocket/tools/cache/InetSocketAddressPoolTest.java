@@ -0,0 +1,79 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.cache;
+
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InetSocketAddressPoolTest {
+
+    @Test
+    void testIPv4InternReturnsSameInstance() {
+        InetSocketAddressPool pool = new InetSocketAddressPool(64);
+        InetSocketAddress first = pool.intern(0xC0A80164, 12345);
+        InetSocketAddress second = pool.intern(0xC0A80164, 12345);
+
+        assertSame(first, second);
+        assertEquals(new InetSocketAddress("192.168.1.100", 12345), first);
+        assertNotEquals(first, pool.intern(0xC0A80164, 12346));
+    }
+
+    @Test
+    void testIPv6InternReturnsSameInstance() {
+        InetSocketAddressPool pool = new InetSocketAddressPool(64);
+        InetSocketAddress first = pool.intern(0x20010DB800000000L, 1L, 5683);
+
+        assertSame(first, pool.intern(0x20010DB800000000L, 1L, 5683));
+        assertEquals(new InetSocketAddress("2001:db8::1", 5683), first);
+    }
+
+    @Test
+    void testIPv4AndIPv6DoNotCollide() {
+        InetSocketAddressPool pool = new InetSocketAddressPool(1);
+        InetSocketAddress v4 = pool.intern(0x0A000001, 80);
+        InetSocketAddress v6 = pool.intern(0L, 0x0A000001L, 80);
+
+        assertEquals(4, v4.getAddress().getAddress().length);
+        assertEquals(16, v6.getAddress().getAddress().length);
+    }
+
+    @Test
+    void testPoolIsBounded() {
+        InetSocketAddressPool pool = new InetSocketAddressPool(3);
+        assertEquals(4, pool.capacity());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, pool.intern(0x0A000000 + i, 1000 + i).getPort() - 1000);
+        }
+        pool.clear();
+        assertThrows(IllegalArgumentException.class, () -> new InetSocketAddressPool(0));
+    }
+
+    @Test
+    void testSourceOfDecodedHeader() throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(new InetSocketAddress("10.1.2.3", 4000))
+                .destination(new InetSocketAddress("10.0.0.1", 5683))
+                .build();
+        InetSocketAddressPool pool = new InetSocketAddressPool(16);
+        ProxyHeaderView view = new ProxyHeaderView();
+
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+        InetSocketAddress first = pool.sourceOf(view);
+        ProxyProtocolV2Decoder.decode(header, 0, header.length, view);
+
+        assertSame(first, pool.sourceOf(view));
+        assertEquals(new InetSocketAddress("10.1.2.3", 4000), first);
+    }
+}
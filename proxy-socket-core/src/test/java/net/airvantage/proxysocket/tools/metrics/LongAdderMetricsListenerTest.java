@@ -0,0 +1,114 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.tools.metrics;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongAdderMetricsListenerTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("192.168.1.100", 12345);
+    private static final InetAddress PROXY = InetAddress.getLoopbackAddress();
+
+    private static ProxyHeader header(ProxyHeader.AddressFamily family, ProxyHeader.Command command, int length) {
+        return new ProxyHeader(command, family, ProxyHeader.TransportProtocol.DGRAM, null, null, null, length);
+    }
+
+    @Test
+    void countsHeadersPerFamilyAndCommand() {
+        LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+        metrics.onHeaderParsed(header(ProxyHeader.AddressFamily.AF_INET, ProxyHeader.Command.PROXY, 28));
+        metrics.onHeaderParsed(header(ProxyHeader.AddressFamily.AF_INET, ProxyHeader.Command.PROXY, 28));
+        metrics.onHeaderParsed(header(ProxyHeader.AddressFamily.AF_INET6, ProxyHeader.Command.PROXY, 52));
+        metrics.onHeaderParsed(header(ProxyHeader.AddressFamily.AF_UNSPEC, ProxyHeader.Command.LOCAL, 16));
+
+        LongAdderMetricsListener.Snapshot s = metrics.snapshot();
+        assertEquals(4, s.headersParsed());
+        assertEquals(2, s.headersParsed(ProxyHeader.AddressFamily.AF_INET, ProxyHeader.Command.PROXY));
+        assertEquals(1, s.headersParsed(ProxyHeader.AddressFamily.AF_INET6, ProxyHeader.Command.PROXY));
+        assertEquals(1, s.headersParsed(ProxyHeader.AddressFamily.AF_UNSPEC, ProxyHeader.Command.LOCAL));
+        assertEquals(0, s.headersParsed(ProxyHeader.AddressFamily.AF_INET, ProxyHeader.Command.LOCAL));
+        assertEquals(124, s.bytesStripped());
+    }
+
+    @Test
+    void countsParseErrorsPerStatus() {
+        LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+        metrics.onParseError(ProxyProtocolParseException.of(ParseStatus.INVALID_SIGNATURE));
+        metrics.onParseError(ProxyProtocolParseException.of(ParseStatus.INVALID_SIGNATURE));
+        metrics.onParseError(ProxyProtocolParseException.of(ParseStatus.CHECKSUM_MISMATCH));
+        metrics.onParseError(new ProxyProtocolParseException("custom"));
+        metrics.onParseError(new IllegalStateException("unrelated"));
+        metrics.onParseError(ProxyProtocolParseException.of(-100));
+
+        LongAdderMetricsListener.Snapshot s = metrics.snapshot();
+        assertEquals(6, s.parseErrors());
+        assertEquals(2, s.parseErrors(ParseStatus.INVALID_SIGNATURE));
+        assertEquals(1, s.parseErrors(ParseStatus.CHECKSUM_MISMATCH));
+        assertEquals(0, s.parseErrors(ParseStatus.TRUNCATED));
+        assertEquals(3, s.parseErrors(ParseStatus.OTHER));
+    }
+
+    @Test
+    void countsCacheAndSourceEventsAndResets() {
+        LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+        metrics.onCacheHit(CLIENT);
+        metrics.onCacheHit(CLIENT);
+        metrics.onCacheMiss(CLIENT);
+        metrics.onTrustedProxy(PROXY);
+        metrics.onUntrustedProxy(PROXY);
+        metrics.onUntrustedProxy(PROXY);
+        metrics.onLocal(PROXY);
+
+        LongAdderMetricsListener.Snapshot s = metrics.snapshot();
+        assertEquals(2, s.cacheHits());
+        assertEquals(1, s.cacheMisses());
+        assertEquals(1, s.trustedProxy());
+        assertEquals(2, s.untrustedProxy());
+        assertEquals(1, s.local());
+
+        metrics.reset();
+        LongAdderMetricsListener.Snapshot cleared = metrics.snapshot();
+        assertEquals(0, cleared.cacheHits());
+        assertEquals(0, cleared.untrustedProxy());
+        assertEquals(2, s.cacheHits(), "snapshots are immutable");
+    }
+
+    @Test
+    void concurrentUpdatesAreAllCounted() throws Exception {
+        LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+        ProxyHeader header = header(ProxyHeader.AddressFamily.AF_INET, ProxyHeader.Command.PROXY, 28);
+        int threads = 4;
+        int events = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < events; i++) {
+                    metrics.onHeaderParsed(header);
+                    metrics.onCacheHit(CLIENT);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        LongAdderMetricsListener.Snapshot s = metrics.snapshot();
+        assertEquals((long) threads * events, s.headersParsed());
+        assertEquals((long) threads * events, s.cacheHits());
+        assertEquals(28L * threads * events, s.bytesStripped());
+    }
+}
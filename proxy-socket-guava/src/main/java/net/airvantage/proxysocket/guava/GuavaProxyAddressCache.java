@@ -3,17 +3,29 @@ package net.airvantage.proxysocket.guava;
 import net.airvantage.proxysocket.core.ProxyAddressCache;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
 import java.net.InetSocketAddress;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class GuavaProxyAddressCache implements ProxyAddressCache {
     private final Cache<InetSocketAddress, InetSocketAddress> cache;
+    private final AtomicLong version = new AtomicLong();
+    // Access-based expiry has to see every lookup, so lookups must not be memoized
+    private final boolean tracksVersion;
 
     public GuavaProxyAddressCache(long maxSize, Duration ttl) {
         CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize);
         if (ttl != null && !ttl.isNegative() && !ttl.isZero()) {
             builder = builder.expireAfterAccess(ttl);
+            tracksVersion = false;
+        } else {
+            tracksVersion = true;
         }
+        // Replacements are counted by put, which knows whether the mapping actually changed
+        builder = builder.removalListener(n -> {
+            if (n.getCause() != RemovalCause.REPLACED) version.incrementAndGet();
+        });
         //noinspection unchecked
         this.cache = (Cache<InetSocketAddress, InetSocketAddress>) (Cache<?, ?>) builder.build();
     }
@@ -21,7 +33,8 @@ public final class GuavaProxyAddressCache implements ProxyAddressCache {
     @Override
     public void put(InetSocketAddress clientAddr, InetSocketAddress proxyAddr) {
         if (clientAddr == null || proxyAddr == null) return;
-        cache.put(clientAddr, proxyAddr);
+        InetSocketAddress previous = cache.asMap().put(clientAddr, proxyAddr);
+        if (previous != null && !previous.equals(proxyAddr)) version.incrementAndGet();
     }
 
     @Override
@@ -40,4 +53,12 @@ public final class GuavaProxyAddressCache implements ProxyAddressCache {
     public void clear() {
         cache.invalidateAll();
     }
+
+    /**
+     * @return the change counter, or -1 when a ttl is set
+     */
+    @Override
+    public long version() {
+        return tracksVersion ? version.get() : -1;
+    }
 }
@@ -52,6 +52,25 @@ class GuavaProxyAddressCacheTest {
         assertEquals(proxyAddr2, result);
     }
 
+    @Test
+    void testVersionTracksChangesAndEvictions() {
+        GuavaProxyAddressCache untimed = new GuavaProxyAddressCache(1, null);
+        assertEquals(-1, cache.version(), "Memoization is disabled with a ttl");
+
+        long initial = untimed.version();
+        untimed.put(clientAddr1, proxyAddr1);
+        untimed.put(clientAddr1, proxyAddr1);
+        assertEquals(initial, untimed.version());
+        untimed.put(clientAddr1, proxyAddr2);
+        assertEquals(initial + 1, untimed.version());
+
+        // Size eviction of the previous entry
+        untimed.put(new InetSocketAddress("192.168.1.101", 1), proxyAddr1);
+        assertEquals(initial + 2, untimed.version());
+        untimed.clear();
+        assertEquals(initial + 3, untimed.version());
+    }
+
     @Test
     void testMaximumSizeEnforcement() {
         GuavaProxyAddressCache smallCache = new GuavaProxyAddressCache(2, Duration.ofMinutes(10));
@@ -0,0 +1,261 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends replies through a {@link ProxyDatagramSocket} from a dedicated thread, so that
+ * handler threads do not stall in the send system call when the socket buffer fills up.
+ *
+ * <p>Packets are queued in a bounded queue. The sender thread drains it in batches and maps
+ * each packet to its load balancer through the socket address cache, like a synchronous send,
+ * so cache hits and misses are reported per packet. While the cache is unchanged, packets to
+ * the client the sender thread last sent to skip the cache lookup. When the queue is full, the
+ * {@link OverflowPolicy} decides between waiting and dropping; drops are counted. A packet
+ * whose mapping or send fails unexpectedly is logged and counted as dropped; if the sender
+ * thread stops anyway, e.g. when interrupted, queued packets are dropped and further sends
+ * are rejected instead of blocking.
+ *
+ * <p>Example usage:
+ * <pre>
+ * AsyncDatagramSender sender = new AsyncDatagramSender.Builder()
+ *     .socket(socket)
+ *     .capacity(4096)
+ *     .overflowPolicy(AsyncDatagramSender.OverflowPolicy.DROP_OLDEST)
+ *     .build();
+ * sender.start();
+ * sender.send(new DatagramPacket(reply, reply.length, client));
+ * </pre>
+ *
+ * Thread-safety: This class is thread-safe; any number of threads may send concurrently.
+ */
+public class AsyncDatagramSender implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncDatagramSender.class);
+
+    /**
+     * What {@link #send(DatagramPacket)} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for room in the queue. */
+        BLOCK,
+        /** Drop the packet being sent. */
+        DROP_NEWEST,
+        /** Drop the oldest queued packet to make room. */
+        DROP_OLDEST
+    }
+
+    private final ProxyDatagramSocket socket;
+    private final BlockingQueue<DatagramPacket> queue;
+    private final OverflowPolicy policy;
+    private final int batchSize;
+    private final LongAdder dropped = new LongAdder();
+
+    private Thread sender;
+    private volatile boolean closed;
+
+    private AsyncDatagramSender(Builder b) {
+        this.socket = b.socket;
+        this.queue = new ArrayBlockingQueue<>(b.capacity);
+        this.policy = b.policy;
+        this.batchSize = b.batchSize;
+    }
+
+    public synchronized void start() {
+        if (sender != null) {
+            throw new IllegalStateException("Sender already started");
+        }
+        sender = new Thread(this::sendLoop, "proxy-udp-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Queues a packet addressed to a real client. The packet is owned by the sender from then
+     * on: the caller must neither modify nor reuse it.
+     *
+     * @return false if the packet was dropped because the queue is full
+     * @throws IllegalStateException if the sender is closed
+     */
+    public boolean send(DatagramPacket packet) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Sender closed");
+        }
+        if (!enqueue(packet)) {
+            return false;
+        }
+        // Closed meanwhile: the sender thread may have ended before seeing this packet
+        if (closed && queue.remove(packet)) {
+            throw new IllegalStateException("Sender closed");
+        }
+        return true;
+    }
+
+    private boolean enqueue(DatagramPacket packet) throws InterruptedException {
+        switch (policy) {
+            case BLOCK:
+                queue.put(packet);
+                return true;
+            case DROP_NEWEST:
+                if (queue.offer(packet)) {
+                    return true;
+                }
+                dropped.increment();
+                return false;
+            default:
+                while (!queue.offer(packet)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                return true;
+        }
+    }
+
+    private void sendLoop() {
+        List<DatagramPacket> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    DatagramPacket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                sendBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            if (!closed) {
+                // Stopped without close(): reject further sends and release blocked senders
+                LOG.error("Sender thread stopped; dropping {} queued packets.", queue.size());
+                closed = true;
+                discardQueued();
+            }
+        }
+    }
+
+    private void discardQueued() {
+        while (queue.poll() != null) {
+            dropped.increment();
+        }
+    }
+
+    private void sendBatch(List<DatagramPacket> batch) {
+        for (DatagramPacket packet : batch) {
+            try {
+                InetSocketAddress client = (InetSocketAddress) packet.getSocketAddress();
+                InetSocketAddress target = socket.resolve(client);
+                if (target == null) {
+                    socket.unresolved(packet);
+                    continue;
+                }
+                packet.setSocketAddress(target);
+                socket.sendResolved(packet);
+            } catch (IOException e) {
+                if (socket.isClosed()) {
+                    return;
+                }
+                LOG.warn("Send to {} failed; continuing.", packet.getSocketAddress(), e);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to send packet to {}; dropping it.", packet.getSocketAddress(), e);
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the number of packets dropped because the queue was full, their mapping or send
+     *         failed unexpectedly, or the sender stopped
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of packets waiting to be sent
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting packets and, if started, waits for the queued ones to be sent; packets
+     * queued on a sender never started are dropped. The socket is left open.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (sender == null) {
+            discardQueued();
+            return;
+        }
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Builder {
+        private ProxyDatagramSocket socket;
+        private int capacity = 1024;
+        private OverflowPolicy policy = OverflowPolicy.BLOCK;
+        private int batchSize = 64;
+
+        public Builder socket(ProxyDatagramSocket socket) {
+            this.socket = socket;
+            return this;
+        }
+
+        /**
+         * @param capacity maximum number of queued packets, defaults to 1024
+         */
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param policy what to do when the queue is full, defaults to {@link OverflowPolicy#BLOCK}
+         */
+        public Builder overflowPolicy(OverflowPolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * @param batchSize maximum number of packets taken from the queue at once, defaults to 64
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public AsyncDatagramSender build() {
+            if (socket == null || policy == null || capacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Invalid arguments");
+            }
+            return new AsyncDatagramSender(this);
+        }
+    }
+}
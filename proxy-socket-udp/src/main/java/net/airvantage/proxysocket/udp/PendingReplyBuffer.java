@@ -0,0 +1,279 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds replies whose client has no known load balancer, typically after a cache eviction
+ * or a restart, instead of dropping them. They are sent as soon as a datagram from that
+ * client maps it again, unless they have grown older than the maximum age.
+ *
+ * <p>Memory is bounded by a per-client and a total number of payload bytes; replies that
+ * would exceed them are dropped. Expired replies are discarded when space is needed, or when
+ * their client is seen again.
+ *
+ * <p>Replies released when their client is mapped again are sent through an executor, so
+ * that a burst of them does not delay the thread receiving the datagram. The replies of one
+ * client are sent one at a time, oldest first, including those released while an earlier
+ * flush for that client is still running. Replies sent directly once the client is mapped are
+ * not ordered with them, and may overtake held replies still being flushed.
+ *
+ * <p>A buffer is enabled with {@link ProxyDatagramSocket#setPendingReplyBuffer} or
+ * {@link ProxyDatagramChannel#setPendingReplyBuffer}, and should not be shared between them.
+ *
+ * Thread-safety: This class is thread-safe.
+ */
+public final class PendingReplyBuffer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(PendingReplyBuffer.class);
+
+    private static final class Reply {
+        final byte[] data;
+        final long heldAt;
+
+        Reply(byte[] data, long heldAt) {
+            this.data = data;
+            this.heldAt = heldAt;
+        }
+    }
+
+    private final int maxBytesPerClient;
+    private final long maxTotalBytes;
+    private final long maxAgeNanos;
+    private final Executor sendExecutor;
+    private final boolean ownsExecutor;
+
+    private final Map<InetSocketAddress, ArrayDeque<Reply>> replies = new HashMap<>();
+    private final Map<InetSocketAddress, Integer> clientBytes = new HashMap<>();
+    private long totalBytes;
+    private long dropped;
+    // Released replies of the clients whose flush is queued or running, oldest first
+    private final Map<InetSocketAddress, ArrayDeque<byte[]>> flushing = new HashMap<>();
+    // Read without locking on every receive
+    private volatile int held;
+
+    /**
+     * Creates a buffer sending released replies from its own daemon thread, started on demand
+     * and stopped when idle or when the buffer is closed.
+     *
+     * @param maxBytesPerClient maximum payload bytes held for one client
+     * @param maxTotalBytes maximum payload bytes held for all clients
+     * @param maxAge age after which a held reply is no longer sent
+     */
+    public PendingReplyBuffer(int maxBytesPerClient, long maxTotalBytes, Duration maxAge) {
+        this(maxBytesPerClient, maxTotalBytes, maxAge, defaultExecutor(), true);
+    }
+
+    /**
+     * @param maxBytesPerClient maximum payload bytes held for one client
+     * @param maxTotalBytes maximum payload bytes held for all clients
+     * @param maxAge age after which a held reply is no longer sent
+     * @param sendExecutor runs the sends of the replies released for a client, in order
+     */
+    public PendingReplyBuffer(int maxBytesPerClient, long maxTotalBytes, Duration maxAge, Executor sendExecutor) {
+        this(maxBytesPerClient, maxTotalBytes, maxAge, sendExecutor, false);
+    }
+
+    private PendingReplyBuffer(int maxBytesPerClient, long maxTotalBytes, Duration maxAge, Executor sendExecutor, boolean ownsExecutor) {
+        if (maxBytesPerClient <= 0 || maxTotalBytes <= 0 || maxAge == null || maxAge.isNegative() || maxAge.isZero()
+            || sendExecutor == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        this.maxBytesPerClient = maxBytesPerClient;
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.sendExecutor = sendExecutor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ExecutorService defaultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "proxy-udp-held-replies");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Takes the replies held for a client that was just mapped again and sends them through
+     * the executor, after any replies of that client still being flushed.
+     */
+    void release(InetSocketAddress client, InetSocketAddress lbAddress, ProxyHeaderProcessor.ReplySink sink) {
+        List<byte[]> released;
+        synchronized (this) {
+            released = take(client);
+            if (released == null) {
+                return;
+            }
+            ArrayDeque<byte[]> queue = flushing.get(client);
+            if (queue != null) {
+                // The running flush sends them after the older ones
+                queue.addAll(released);
+                return;
+            }
+            flushing.put(client, new ArrayDeque<>(released));
+        }
+        LOG.debug("Sending {} held replies to client {}.", released.size(), client);
+        try {
+            sendExecutor.execute(() -> flush(client, lbAddress, sink));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                int count = flushing.remove(client).size();
+                dropped += count;
+                LOG.warn("Held replies rejected by the send executor; dropping {} replies to client {}.", count, client);
+            }
+        }
+    }
+
+    private void flush(InetSocketAddress client, InetSocketAddress lbAddress, ProxyHeaderProcessor.ReplySink sink) {
+        while (true) {
+            byte[] data;
+            synchronized (this) {
+                ArrayDeque<byte[]> queue = flushing.get(client);
+                data = queue.poll();
+                if (data == null) {
+                    flushing.remove(client);
+                    return;
+                }
+            }
+            try {
+                sink.send(data, lbAddress);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Failed to send held reply to client {}.", client, e);
+            }
+        }
+    }
+
+    /**
+     * Holds a copy of the bytes between the position and the limit of src, which are left
+     * unchanged.
+     *
+     * @return false if the reply was dropped because a limit would be exceeded
+     */
+    public synchronized boolean hold(InetSocketAddress client, ByteBuffer src) {
+        int length = src.remaining();
+        long now = System.nanoTime();
+        int used = clientBytes.getOrDefault(client, 0);
+        if (used + length > maxBytesPerClient || totalBytes + length > maxTotalBytes) {
+            purgeExpired(now);
+            used = clientBytes.getOrDefault(client, 0);
+            if (used + length > maxBytesPerClient || totalBytes + length > maxTotalBytes) {
+                dropped++;
+                return false;
+            }
+        }
+        byte[] data = new byte[length];
+        src.get(src.position(), data);
+        replies.computeIfAbsent(client, k -> new ArrayDeque<>()).add(new Reply(data, now));
+        clientBytes.put(client, used + length);
+        totalBytes += length;
+        held++;
+        return true;
+    }
+
+    /**
+     * Removes the replies held for a client.
+     *
+     * @return the payloads still young enough to be sent, oldest first, or null if none
+     */
+    public List<byte[]> take(InetSocketAddress client) {
+        if (held == 0) {
+            return null;
+        }
+        synchronized (this) {
+            ArrayDeque<Reply> queue = replies.remove(client);
+            if (queue == null) {
+                return null;
+            }
+            totalBytes -= clientBytes.remove(client);
+            held -= queue.size();
+
+            long now = System.nanoTime();
+            List<byte[]> result = new ArrayList<>(queue.size());
+            for (Reply reply : queue) {
+                if (now - reply.heldAt <= maxAgeNanos) {
+                    result.add(reply.data);
+                } else {
+                    dropped++;
+                }
+            }
+            return result.isEmpty() ? null : result;
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<InetSocketAddress, ArrayDeque<Reply>>> it = replies.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<InetSocketAddress, ArrayDeque<Reply>> entry = it.next();
+            ArrayDeque<Reply> queue = entry.getValue();
+            int freed = 0;
+            while (!queue.isEmpty() && now - queue.peekFirst().heldAt > maxAgeNanos) {
+                freed += queue.pollFirst().data.length;
+                held--;
+                dropped++;
+            }
+            if (freed == 0) {
+                continue;
+            }
+            totalBytes -= freed;
+            if (queue.isEmpty()) {
+                it.remove();
+                clientBytes.remove(entry.getKey());
+            } else {
+                clientBytes.merge(entry.getKey(), -freed, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * @return the number of replies currently held, including expired ones not yet discarded
+     */
+    public int heldCount() {
+        return held;
+    }
+
+    public synchronized long heldBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of replies dropped, because of a limit, their age, or a rejected send
+     */
+    public synchronized long droppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Stops the default sender thread once the replies already released are sent. An executor
+     * supplied to the constructor is left running.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) sendExecutor).shutdown();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
+import net.airvantage.proxysocket.tools.cache.DecodedHeaderCache;
+import net.airvantage.proxysocket.tools.cache.InetSocketAddressPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.function.Predicate;
+
+/**
+ * {@link DatagramChannel} counterpart of {@link ProxyDatagramSocket}: strips Proxy Protocol v2
+ * headers and exposes the real client address, with support for non-blocking mode, selectors
+ * and direct buffers.
+ *
+ * <p>The header is stripped by moving the buffer position, without copying the payload. Heap
+ * buffers are decoded through their backing array, direct buffers in place.
+ *
+ * <p>Example usage with a selector:
+ * <pre>
+ * ProxyDatagramChannel channel = ProxyDatagramChannel.open(cache, null, null);
+ * channel.bind(new InetSocketAddress(9999)).configureBlocking(false);
+ * channel.register(selector, SelectionKey.OP_READ);
+ * ...
+ * ProxyDatagramChannel ready = (ProxyDatagramChannel) key.attachment();
+ * buffer.clear();
+ * SocketAddress client = ready.receive(buffer); // buffer holds the payload only
+ * </pre>
+ *
+ * Thread-safety: This class is thread-safe to the extent that {@link DatagramChannel} is.
+ * The cache and metrics listener are expected to be thread-safe.
+ */
+public class ProxyDatagramChannel implements Channel {
+    private static final Logger LOG = LoggerFactory.getLogger(ProxyDatagramChannel.class);
+
+    private final DatagramChannel channel;
+    private final ProxyHeaderProcessor processor;
+    // Set while receiveBatch drains a blocking channel in non-blocking mode
+    private volatile boolean draining;
+
+    public ProxyDatagramChannel(DatagramChannel channel, ProxyAddressCache cache, ProxyProtocolMetricsListener metrics, Predicate<InetSocketAddress> predicate) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        this.channel = channel;
+        this.processor = new ProxyHeaderProcessor(LOG, cache, metrics, predicate,
+            (data, lb) -> channel.send(ByteBuffer.wrap(data), lb));
+    }
+
+    /**
+     * Opens an unbound channel.
+     */
+    public static ProxyDatagramChannel open(ProxyAddressCache cache, ProxyProtocolMetricsListener metrics, Predicate<InetSocketAddress> predicate) throws IOException {
+        return new ProxyDatagramChannel(DatagramChannel.open(), cache, metrics, predicate);
+    }
+
+    /**
+     * @return the underlying channel, e.g. to set socket options
+     */
+    public DatagramChannel channel() {
+        return channel;
+    }
+
+    public ProxyDatagramChannel bind(SocketAddress local) throws IOException {
+        channel.bind(local);
+        return this;
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return channel.getLocalAddress();
+    }
+
+    public ProxyDatagramChannel configureBlocking(boolean block) throws IOException {
+        channel.configureBlocking(block);
+        return this;
+    }
+
+    public boolean isBlocking() {
+        return channel.isBlocking();
+    }
+
+    /**
+     * Registers the underlying channel with this instance as attachment.
+     */
+    public SelectionKey register(Selector selector, int ops) throws ClosedChannelException {
+        return channel.register(selector, ops, this);
+    }
+
+    public SelectionKey register(Selector selector, int ops, Object attachment) throws ClosedChannelException {
+        return channel.register(selector, ops, attachment);
+    }
+
+    /**
+     * @see ProxyDatagramSocket#setAddressPool(InetSocketAddressPool)
+     */
+    public void setAddressPool(InetSocketAddressPool pool) {
+        processor.addressPool = pool;
+    }
+
+    public InetSocketAddressPool getAddressPool() {
+        return processor.addressPool;
+    }
+
+    /**
+     * @see ProxyDatagramSocket#setHeaderCache(DecodedHeaderCache)
+     */
+    public void setHeaderCache(DecodedHeaderCache cache) {
+        processor.headerCache = cache;
+    }
+
+    public DecodedHeaderCache getHeaderCache() {
+        return processor.headerCache;
+    }
+
+    /**
+     * @see ProxyDatagramSocket#setPendingReplyBuffer(PendingReplyBuffer)
+     */
+    public void setPendingReplyBuffer(PendingReplyBuffer buffer) {
+        processor.pendingReplies = buffer;
+    }
+
+    public PendingReplyBuffer getPendingReplyBuffer() {
+        return processor.pendingReplies;
+    }
+
+    /**
+     * @see ProxyDatagramSocket#setVerifyChecksum(boolean)
+     */
+    public void setVerifyChecksum(boolean verifyChecksum) {
+        processor.verifyChecksum = verifyChecksum;
+    }
+
+    public boolean getVerifyChecksum() {
+        return processor.verifyChecksum;
+    }
+
+    /**
+     * Receives a datagram into dst, starting at its position, like {@link DatagramChannel#receive(ByteBuffer)}.
+     * Unlike it, the buffer is left ready to be read: on return, the payload lies between the
+     * buffer position and its limit, after the stripped header. Datagrams that are not
+     * stripped (untrusted source, no or invalid header) are delivered whole.
+     *
+     * @return the real client address, the sender address if the datagram was not proxied,
+     *         or null if no datagram was available in non-blocking mode
+     */
+    public SocketAddress receive(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        SocketAddress sender = receiveRaw(dst);
+        if (sender == null) {
+            return null;
+        }
+        dst.limit(dst.position()).position(start);
+
+        ProxyHeaderProcessor.Result result = processor.receive(dst, (InetSocketAddress) sender);
+        if (result.headerLength < 0) {
+            return sender;
+        }
+        dst.position(start + result.headerLength);
+        return result.client != null ? result.client : sender;
+    }
+
+    /**
+     * Receives a datagram into a pooled buffer, after {@link ReceiveBufferPool.PooledBuffer#reset()
+     * resetting} it, like {@link #receive(ByteBuffer)}.
+     */
+    public SocketAddress receive(ReceiveBufferPool.PooledBuffer buffer) throws IOException {
+        return receive(buffer.reset().buffer());
+    }
+
+    /**
+     * Receives several datagrams per call, then decodes them together. Only the first receive
+     * may block, when the channel is in blocking mode; the following ones only take datagrams
+     * already queued on the socket, so that one call drains the socket buffer. In blocking
+     * mode, the channel is switched to non-blocking mode under its
+     * {@link DatagramChannel#blockingLock() blocking lock} for the draining receives; receive
+     * calls of this class made concurrently wait for blocking mode to be restored.
+     *
+     * <p>If a receive fails, the datagrams already received are still decoded and stored,
+     * then the exception is thrown.
+     *
+     * <p>Each received datagram is left like with {@link #receive(ByteBuffer)}, and its
+     * address stored at the same index of addresses. Compared with as many receive calls, the
+     * trusted proxy check runs once per sender change and the address cache is updated once
+     * per run of datagrams from the same client.
+     *
+     * @param buffers buffers to receive into, each from its position
+     * @param addresses receives the real client (or sender) address of each datagram
+     * @return the number of datagrams received, possibly zero in non-blocking mode
+     */
+    public int receiveBatch(ByteBuffer[] buffers, SocketAddress[] addresses) throws IOException {
+        if (buffers == null || addresses == null || addresses.length < buffers.length) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+
+        int count = 0;
+        try {
+            if (buffers.length == 0 || !receiveAt(buffers, addresses, 0)) {
+                return 0;
+            }
+            count = 1;
+            synchronized (channel.blockingLock()) {
+                boolean blocking = channel.isBlocking();
+                if (blocking) {
+                    draining = true;
+                    channel.configureBlocking(false);
+                }
+                try {
+                    while (count < buffers.length && receiveAt(buffers, addresses, count)) {
+                        count++;
+                    }
+                } finally {
+                    if (blocking) {
+                        channel.configureBlocking(true);
+                        draining = false;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            processor.receiveBatch(buffers, addresses, count);
+        }
+    }
+
+    private boolean receiveAt(ByteBuffer[] buffers, SocketAddress[] addresses, int index) throws IOException {
+        ByteBuffer dst = buffers[index];
+        int start = dst.position();
+        SocketAddress sender = receiveRaw(dst);
+        if (sender == null) {
+            return false;
+        }
+        dst.limit(dst.position()).position(start);
+        addresses[index] = sender;
+        return true;
+    }
+
+    // Like channel.receive, except that a null caused by a concurrent receiveBatch draining
+    // the channel in non-blocking mode is retried once blocking mode is restored.
+    private SocketAddress receiveRaw(ByteBuffer dst) throws IOException {
+        SocketAddress sender = channel.receive(dst);
+        while (sender == null && (draining || channel.isBlocking())) {
+            synchronized (channel.blockingLock()) {
+                if (!channel.isBlocking()) {
+                    return null;
+                }
+            }
+            sender = channel.receive(dst);
+        }
+        return sender;
+    }
+
+    /**
+     * Sends the remaining bytes of src to target, like {@link DatagramChannel#send(ByteBuffer, SocketAddress)},
+     * after mapping the client address back to the load balancer it was received through.
+     *
+     * @return the number of bytes sent, possibly zero in non-blocking mode, or -1 if the
+     *         address cache does not know the client, in which case the datagram was dropped,
+     *         or held if a {@link #setPendingReplyBuffer pending reply buffer} is set
+     */
+    public int send(ByteBuffer src, SocketAddress target) throws IOException {
+        InetSocketAddress lb = processor.resolve((InetSocketAddress) target);
+        if (lb == null) {
+            processor.unresolved((InetSocketAddress) target, src);
+            return -1;
+        }
+        return channel.send(src, lb);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -6,9 +6,8 @@ package net.airvantage.proxysocket.udp;
 
 import net.airvantage.proxysocket.core.ProxyAddressCache;
 import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
-import net.airvantage.proxysocket.core.ProxyProtocolParseException;
-import net.airvantage.proxysocket.core.v2.ProxyHeader;
-import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+import net.airvantage.proxysocket.tools.cache.DecodedHeaderCache;
+import net.airvantage.proxysocket.tools.cache.InetSocketAddressPool;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +21,7 @@ import java.net.PortUnreachableException;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.channels.IllegalBlockingModeException;
 import java.util.function.Predicate;
 
@@ -36,15 +36,11 @@ import java.util.function.Predicate;
 public class ProxyDatagramSocket extends DatagramSocket {
     private static final Logger LOG = LoggerFactory.getLogger(ProxyDatagramSocket.class);
 
-    private final ProxyAddressCache addressCache;
-    private final ProxyProtocolMetricsListener metrics;
-    private final Predicate<InetSocketAddress> trustedProxyPredicate;
+    private final ProxyHeaderProcessor processor;
 
     public ProxyDatagramSocket(SocketAddress bindaddr, ProxyAddressCache cache, ProxyProtocolMetricsListener metrics, Predicate<InetSocketAddress> predicate) throws SocketException {
         super(bindaddr);
-        this.addressCache = cache;
-        this.metrics = metrics;
-        this.trustedProxyPredicate = predicate;
+        this.processor = new ProxyHeaderProcessor(LOG, cache, metrics, predicate, this::sendHeld);
     }
 
     public ProxyDatagramSocket(ProxyAddressCache cache, ProxyProtocolMetricsListener metrics, Predicate<InetSocketAddress> predicate) throws SocketException {
@@ -59,63 +55,128 @@ public class ProxyDatagramSocket extends DatagramSocket {
         this(new InetSocketAddress(laddr, port), cache, metrics, predicate);
     }
 
+    /**
+     * Sets an optional pool used to intern real client addresses, so that recurring clients
+     * do not allocate a new address per datagram. The pool may be shared between sockets.
+     *
+     * @param pool the pool to use, or null to allocate a new address per datagram
+     */
+    public void setAddressPool(InetSocketAddressPool pool) {
+        processor.addressPool = pool;
+    }
+
+    public InetSocketAddressPool getAddressPool() {
+        return processor.addressPool;
+    }
+
+    /**
+     * Sets an optional cache of decoded headers, so that datagrams repeating the header bytes
+     * of a recent one are not decoded again. The cache may be shared between sockets.
+     * It is bypassed while checksum verification is enabled.
+     *
+     * @param cache the cache to use, or null to decode every header
+     */
+    public void setHeaderCache(DecodedHeaderCache cache) {
+        processor.headerCache = cache;
+    }
+
+    public DecodedHeaderCache getHeaderCache() {
+        return processor.headerCache;
+    }
+
+    /**
+     * Sets an optional buffer holding replies to clients missing from the address cache,
+     * until their next datagram maps them again, instead of dropping them.
+     *
+     * @param buffer the buffer to use, or null to drop such replies
+     */
+    public void setPendingReplyBuffer(PendingReplyBuffer buffer) {
+        processor.pendingReplies = buffer;
+    }
+
+    public PendingReplyBuffer getPendingReplyBuffer() {
+        return processor.pendingReplies;
+    }
+
+    /**
+     * Enables verification of the PP2_TYPE_CRC32C TLV when the load balancer sends one.
+     * Datagrams whose checksum does not match are handled like any other parse error.
+     */
+    public void setVerifyChecksum(boolean verifyChecksum) {
+        processor.verifyChecksum = verifyChecksum;
+    }
+
+    public boolean getVerifyChecksum() {
+        return processor.verifyChecksum;
+    }
+
     @Override
     public void receive(DatagramPacket packet)
         throws IOException, SocketTimeoutException, PortUnreachableException, IllegalBlockingModeException {
 
         super.receive(packet);
 
-        try {
-            InetSocketAddress lbAddress = (InetSocketAddress) packet.getSocketAddress();
-            if (trustedProxyPredicate != null && !trustedProxyPredicate.test(lbAddress)) {
-                // Untrusted source: do not parse, deliver original packet
-                LOG.debug("Untrusted proxy source; delivering original packet.");
-                if (metrics != null) metrics.onUntrustedProxy(lbAddress.getAddress());
-                return;
-            }
-
-            ProxyHeader header = ProxyProtocolV2Decoder.parse(packet.getData(), packet.getOffset(), packet.getLength());
-            if (metrics != null) metrics.onHeaderParsed(header);
-
-            if (header.isLocal()) {
-                // LOCAL: not proxied
-                if (metrics != null) metrics.onLocal(lbAddress.getAddress());
-            }
-            if (header.isProxy() && header.getProtocol() == ProxyHeader.TransportProtocol.DGRAM) {
-                if (metrics != null) metrics.onTrustedProxy(lbAddress.getAddress());
-
-                InetSocketAddress realClient = header.getSourceAddress();
-                if (realClient != null) { // could be null if address family is unspecified or unix
-                    if (addressCache != null) addressCache.put(realClient, lbAddress);
-                    packet.setSocketAddress(realClient);
-                }
-            }
-
-            int headerLen = header.getHeaderLength();
-            LOG.trace("Stripping header: {} bytes, original length: {}", headerLen, packet.getLength());
-            packet.setData(packet.getData(), packet.getOffset() + headerLen, packet.getLength() - headerLen);
-        } catch (ProxyProtocolParseException e) {
-            LOG.warn("Proxy socket parse error; delivering original packet.", e);
-            if (metrics != null) metrics.onParseError(e);
+        byte[] data = packet.getData();
+        int offset = packet.getOffset();
+        int length = packet.getLength();
+        ProxyHeaderProcessor.Result result = processor.receive(data, offset, length, (InetSocketAddress) packet.getSocketAddress());
+        if (result.headerLength < 0) {
+            return;
         }
+        if (result.client != null) {
+            packet.setSocketAddress(result.client);
+        }
+        packet.setData(data, offset + result.headerLength, length - result.headerLength);
+    }
+
+    /**
+     * Receives a datagram into a pooled buffer from a {@link ReceiveBufferPool#heap(int, int) heap}
+     * pool, after {@link ReceiveBufferPool.PooledBuffer#reset() resetting} it. On return, both its
+     * packet and its buffer are narrowed to the payload, and the packet holds the client address.
+     *
+     * @see #receive(DatagramPacket)
+     */
+    public void receive(ReceiveBufferPool.PooledBuffer buffer) throws IOException {
+        receive(buffer.reset().packet());
+        buffer.syncFromPacket();
     }
 
     @Override
     public void send(DatagramPacket packet) throws IOException {
-        InetSocketAddress client = (InetSocketAddress) packet.getSocketAddress();
-        InetSocketAddress lb = addressCache != null ? addressCache.get(client) : null;
-
-        if (lb != null) {
-            packet.setSocketAddress(lb);
-            if (metrics != null) metrics.onCacheHit(client);
-        } else if (addressCache != null) {
-            // Cache miss: unable to map client to load balancer address,
-            LOG.warn("Cache miss for client {}; unable to map to load balancer address, dropping packet.", client);
-            if (metrics != null) metrics.onCacheMiss(client);
+        InetSocketAddress target = processor.resolve((InetSocketAddress) packet.getSocketAddress());
+        if (target == null) {
+            unresolved(packet);
             return;
-        // } else {
-            // No cache: deliver original packet
         }
+        packet.setSocketAddress(target);
+        super.send(packet);
+    }
+
+    /**
+     * Maps a client address like {@link #send(DatagramPacket)}, for callers resolving ahead.
+     *
+     * @return the address to send to, or null if the datagram must be dropped
+     */
+    InetSocketAddress resolve(InetSocketAddress client) {
+        return processor.resolve(client);
+    }
+
+    /**
+     * Sends a packet already addressed to its load balancer by {@link #resolve}.
+     */
+    void sendResolved(DatagramPacket packet) throws IOException {
         super.send(packet);
     }
+
+    /**
+     * Holds or drops a packet whose client {@link #resolve} could not map.
+     */
+    void unresolved(DatagramPacket packet) {
+        processor.unresolved((InetSocketAddress) packet.getSocketAddress(),
+            ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()));
+    }
+
+    private void sendHeld(byte[] data, InetSocketAddress lbAddress) throws IOException {
+        super.send(new DatagramPacket(data, data.length, lbAddress));
+    }
 }
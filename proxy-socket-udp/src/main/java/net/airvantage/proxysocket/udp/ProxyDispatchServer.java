@@ -0,0 +1,266 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Receives datagrams from a {@link ProxyDatagramSocket} on a single thread and hands each of
+ * them, with the real client address already resolved, to a handler running on its own task.
+ *
+ * <p>By default, tasks run on virtual threads when the runtime provides them (Java 21+), so
+ * blocking handlers (database lookups, remote calls) scale to many concurrent clients without
+ * a sized thread pool. On older runtimes, a cached pool of platform threads is used instead.
+ *
+ * <p>With {@link Builder#orderedPerClient(boolean)}, datagrams of a given client are handled
+ * one at a time, in reception order, while different clients are still handled concurrently.
+ *
+ * <p>Example usage:
+ * <pre>
+ * ProxyDispatchServer server = new ProxyDispatchServer.Builder()
+ *     .socket(socket)
+ *     .handler((s, packet) -> s.send(packet)) // echo
+ *     .orderedPerClient(true)
+ *     .build();
+ * server.start();
+ * </pre>
+ *
+ * Thread-safety: This class is thread-safe. The handler is called concurrently and must be
+ * thread-safe.
+ */
+public class ProxyDispatchServer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ProxyDispatchServer.class);
+
+    /**
+     * Callback invoked on a dispatch task for each received datagram.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param socket the socket the datagram was received on, usable to reply
+         * @param packet a packet owned by the handler, holding a copy of the payload and the
+         *               real client address (or the sender address if not proxied)
+         */
+        void onDatagram(ProxyDatagramSocket socket, DatagramPacket packet) throws Exception;
+    }
+
+    private final ProxyDatagramSocket socket;
+    private final Handler handler;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final boolean ordered;
+    private final int bufferSize;
+    // Last task queued for each client with pending work, when ordered
+    private final ConcurrentMap<SocketAddress, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private Thread receiver;
+    private volatile boolean running;
+
+    private ProxyDispatchServer(Builder b) {
+        this.socket = b.socket;
+        this.handler = b.handler;
+        this.ownsExecutor = b.executor == null;
+        this.executor = ownsExecutor ? defaultExecutor() : b.executor;
+        this.ordered = b.ordered;
+        this.bufferSize = b.bufferSize;
+    }
+
+    /**
+     * @return a virtual-thread-per-task executor when the runtime supports virtual threads,
+     *         otherwise a cached pool of daemon platform threads
+     */
+    static ExecutorService defaultExecutor() {
+        try {
+            // Looked up reflectively to keep building and running on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Virtual threads unavailable; dispatching to platform threads.");
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "proxy-udp-dispatch");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public synchronized void start() {
+        if (receiver != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        running = true;
+        receiver = new Thread(this::receiveLoop, "proxy-udp-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[bufferSize];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        ReceiveBackoff backoff = new ReceiveBackoff();
+        while (running && !socket.isClosed() && !Thread.currentThread().isInterrupted()) {
+            try {
+                packet.setData(buffer, 0, buffer.length);
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                LOG.warn("Receive failed; retrying after a pause.", e);
+                if (!backoff.pause()) {
+                    break;
+                }
+                continue;
+            }
+            backoff.reset();
+            // The handler owns its copy, as the receive buffer is reused right away
+            byte[] payload = Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+            DatagramPacket task = new DatagramPacket(payload, payload.length, packet.getSocketAddress());
+            try {
+                dispatch(task);
+            } catch (RejectedExecutionException e) {
+                rejected(task.getSocketAddress());
+            }
+        }
+    }
+
+    private void dispatch(DatagramPacket packet) {
+        if (!ordered) {
+            executor.execute(() -> handle(packet));
+            return;
+        }
+        SocketAddress client = packet.getSocketAddress();
+        CompletableFuture<Void> tail = tails.compute(client, (k, previous) -> {
+            // Chained on the completion of the previous task, whatever its outcome, so that a
+            // datagram rejected by the executor does not skip the ones queued after it
+            CompletableFuture<Void> next = previous == null
+                ? CompletableFuture.runAsync(() -> handle(packet), executor)
+                : previous.handle((r, e) -> null).thenRunAsync(() -> handle(packet), executor);
+            return next.whenComplete((r, e) -> {
+                if (e != null) {
+                    rejected(client);
+                }
+            });
+        });
+        // Forget the client once its queue is drained, unless more work was queued meanwhile
+        tail.whenComplete((r, e) -> tails.remove(client, tail));
+    }
+
+    private void rejected(SocketAddress client) {
+        dropped.increment();
+        LOG.warn("Dispatch rejected; dropping datagram from {}.", client);
+    }
+
+    private void handle(DatagramPacket packet) {
+        try {
+            handler.onDatagram(socket, packet);
+        } catch (Exception e) {
+            LOG.warn("Handler failed for datagram from {}.", packet.getSocketAddress(), e);
+        }
+    }
+
+    /**
+     * @return the number of datagrams dropped because the executor rejected them
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of clients with queued or running work, when ordered per client
+     */
+    public int pendingClients() {
+        return tails.size();
+    }
+
+    /**
+     * Closes the socket, which stops the receive loop, then shuts the default executor down.
+     * An executor supplied to the builder is left running. When called from the receive
+     * thread, e.g. by a handler run by a direct executor, the loop ends once the handler returns.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            socket.close();
+            current = receiver;
+        }
+        // Joined without holding the lock, so that handlers closing concurrently do not deadlock
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public static final class Builder {
+        private ProxyDatagramSocket socket;
+        private Handler handler;
+        private ExecutorService executor;
+        private boolean ordered;
+        private int bufferSize = 2048;
+
+        public Builder socket(ProxyDatagramSocket socket) {
+            this.socket = socket;
+            return this;
+        }
+
+        public Builder handler(Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        /**
+         * @param executor executor running the handler; defaults to virtual threads when available
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param ordered whether datagrams of a given client are handled one at a time, in order
+         */
+        public Builder orderedPerClient(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * @param bufferSize receive buffer size, defaults to 2048; longer datagrams are truncated
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public ProxyDispatchServer build() {
+            if (socket == null || handler == null || bufferSize <= 0) {
+                throw new IllegalArgumentException("Invalid arguments");
+            }
+            return new ProxyDispatchServer(this);
+        }
+    }
+}
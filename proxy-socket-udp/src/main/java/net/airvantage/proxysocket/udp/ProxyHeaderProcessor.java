@@ -0,0 +1,333 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ParseStatus;
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.core.ProxyProtocolDecoder;
+import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.core.v2.ProxyHeaderView;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Decoder;
+import net.airvantage.proxysocket.tools.cache.DecodedHeaderCache;
+import net.airvantage.proxysocket.tools.cache.InetSocketAddressPool;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+/**
+ * Receive and send logic shared by {@link ProxyDatagramSocket} and {@link ProxyDatagramChannel}:
+ * trusted proxy check, header decoding, client to load balancer mapping and metrics.
+ *
+ * Thread-safety: This class is thread-safe; options are volatile and per-receive state is
+ * kept in a thread-local {@link Result}.
+ */
+final class ProxyHeaderProcessor {
+
+    /**
+     * Outcome of {@link #receive}, reused by each thread.
+     */
+    static final class Result {
+        final ProxyHeaderView view = new ProxyHeaderView();
+        /** Length of the header to strip, or -1 to deliver the datagram unchanged. */
+        int headerLength;
+        /** Real client address, or null if the header carries none. */
+        InetSocketAddress client;
+        /** Out parameter of {@link DecodedHeaderCache#tryGet}, cleared after each use. */
+        final ProxyHeader[] cached = new ProxyHeader[1];
+    }
+
+    /**
+     * Last client a thread sent to, valid while the address cache version is unchanged.
+     */
+    private static final class LastClient {
+        InetSocketAddress client;
+        InetSocketAddress lb;
+        long version = -1;
+    }
+
+    /**
+     * Sends a held reply, once its client is mapped again, through the owning socket.
+     */
+    @FunctionalInterface
+    interface ReplySink {
+        void send(byte[] data, InetSocketAddress lbAddress) throws IOException;
+    }
+
+    private static final ThreadLocal<Result> RESULTS = ThreadLocal.withInitial(Result::new);
+
+    private final Logger log;
+    private final ReplySink replySink;
+    final ProxyAddressCache addressCache;
+    final ProxyProtocolMetricsListener metrics;
+    final Predicate<InetSocketAddress> trustedProxyPredicate;
+    volatile InetSocketAddressPool addressPool;
+    volatile boolean verifyChecksum;
+    volatile DecodedHeaderCache headerCache;
+    volatile PendingReplyBuffer pendingReplies;
+    // Kept per sending thread, so that remembering a client neither allocates nor contends
+    private final ThreadLocal<LastClient> lastClient = ThreadLocal.withInitial(LastClient::new);
+
+    ProxyHeaderProcessor(Logger log, ProxyAddressCache addressCache, ProxyProtocolMetricsListener metrics,
+                         Predicate<InetSocketAddress> predicate, ReplySink replySink) {
+        this.log = log;
+        this.replySink = replySink;
+        this.addressCache = addressCache;
+        this.metrics = metrics;
+        this.trustedProxyPredicate = predicate;
+    }
+
+    /**
+     * Processes a datagram received from lbAddress and held between the buffer position and
+     * its limit. Neither the buffer position nor its limit are modified.
+     */
+    Result receive(ByteBuffer buffer, InetSocketAddress lbAddress) {
+        Result result = RESULTS.get();
+        receive(result, buffer, lbAddress, isTrusted(lbAddress), true);
+        return result;
+    }
+
+    Result receive(byte[] data, int offset, int length, InetSocketAddress lbAddress) {
+        Result result = RESULTS.get();
+        receive(result, data, null, offset, length, lbAddress, isTrusted(lbAddress), true);
+        return result;
+    }
+
+    /**
+     * Processes count datagrams held between the position and the limit of each buffer, in
+     * place: each buffer position is moved after the stripped header, and each sender address
+     * is replaced by the real client address when there is one.
+     *
+     * <p>The trusted proxy check is only evaluated when the sender changes, and the address
+     * cache is only updated once per run of datagrams from the same client and load balancer.
+     */
+    void receiveBatch(ByteBuffer[] buffers, SocketAddress[] addresses, int count) {
+        Result result = RESULTS.get();
+        InetSocketAddress lastSender = null;
+        boolean trusted = false;
+        InetSocketAddress lastClient = null;
+        InetSocketAddress lastLb = null;
+        for (int i = 0; i < count; i++) {
+            InetSocketAddress sender = (InetSocketAddress) addresses[i];
+            if (lastSender == null || !lastSender.equals(sender)) {
+                trusted = isTrusted(sender);
+                lastSender = sender;
+            }
+            ByteBuffer buffer = buffers[i];
+            receive(result, buffer, sender, trusted, false);
+            if (result.headerLength < 0) {
+                continue;
+            }
+            InetSocketAddress client = result.client;
+            if (client != null) {
+                if (addressCache != null && !(client.equals(lastClient) && sender.equals(lastLb))) {
+                    publish(client, sender);
+                    lastClient = client;
+                    lastLb = sender;
+                }
+                addresses[i] = client;
+            }
+            buffer.position(buffer.position() + result.headerLength);
+        }
+    }
+
+    private boolean isTrusted(InetSocketAddress lbAddress) {
+        return trustedProxyPredicate == null || trustedProxyPredicate.test(lbAddress);
+    }
+
+    private void receive(Result result, ByteBuffer buffer, InetSocketAddress lbAddress, boolean trusted, boolean publish) {
+        if (buffer.hasArray()) {
+            receive(result, buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining(), lbAddress, trusted, publish);
+        } else {
+            receive(result, null, buffer, buffer.position(), buffer.remaining(), lbAddress, trusted, publish);
+        }
+    }
+
+    // Exactly one of data/buffer is non-null; a buffer is read relative to its position.
+    // The address cache is only updated when publish is set.
+    private void receive(Result result, byte[] data, ByteBuffer buffer, int offset, int length,
+                         InetSocketAddress lbAddress, boolean trusted, boolean publish) {
+        result.headerLength = -1;
+        result.client = null;
+
+        if (!trusted) {
+            // Untrusted source: do not parse, deliver original packet
+            log.debug("Untrusted proxy source; delivering original packet.");
+            if (metrics != null) metrics.onUntrustedProxy(lbAddress.getAddress());
+            return;
+        }
+
+        // Direct clients on a mixed listener are told apart by the decoder signature check,
+        // which reports INVALID_SIGNATURE without a second scan. v1 is a TCP-only format, so
+        // only v2 is decoded here. A datagram rejected by the header cache is not decoded again.
+        DecodedHeaderCache cache = headerCache;
+        ProxyHeader header = null;
+        ProxyHeaderView view = null;
+        int status = 0;
+        if (data != null && cache != null && !verifyChecksum) {
+            status = cache.tryGet(data, offset, length, result.cached);
+            header = result.cached[0];
+            result.cached[0] = null;
+        }
+        if (header == null) {
+            view = result.view;
+            if (status >= 0) {
+                status = decode(data, buffer, offset, length, view);
+            }
+            if (status == ParseStatus.TRUNCATED && !startsWithSignature(data, buffer, offset, length)) {
+                // A datagram is complete as received: a short payload is not a truncated header
+                status = ParseStatus.INVALID_SIGNATURE;
+            }
+            if (status >= 0 && verifyChecksum && !ProxyProtocolV2Decoder.verifyCrc32c(view)) {
+                status = ParseStatus.CHECKSUM_MISMATCH;
+            }
+            if (status < 0) {
+                if (status == ParseStatus.INVALID_SIGNATURE) {
+                    log.debug("No proxy header; delivering original packet.");
+                } else {
+                    log.debug("Proxy socket parse error ({}); delivering original packet.", ParseStatus.message(status));
+                }
+                if (metrics != null) metrics.onParseError(ProxyProtocolParseException.of(status));
+                return;
+            }
+            if (metrics != null) {
+                header = view.toProxyHeader();
+            }
+        }
+        if (metrics != null) {
+            metrics.onHeaderParsed(header);
+        }
+
+        boolean local = view != null ? view.isLocal() : header.isLocal();
+        boolean proxy = view != null ? view.isProxy() : header.isProxy();
+        ProxyHeader.TransportProtocol protocol = view != null ? view.getProtocol() : header.getProtocol();
+        if (local) {
+            // LOCAL: not proxied
+            if (metrics != null) metrics.onLocal(lbAddress.getAddress());
+        }
+        if (proxy && protocol == ProxyHeader.TransportProtocol.DGRAM) {
+            if (metrics != null) metrics.onTrustedProxy(lbAddress.getAddress());
+
+            // A cached header always hands out the same source address instance
+            InetSocketAddressPool pool = addressPool;
+            InetSocketAddress realClient = view == null ? header.getSourceAddress()
+                : pool != null ? pool.sourceOf(view)
+                : header != null ? header.getSourceAddress() : view.getSourceAddress();
+            if (realClient != null) { // could be null if address family is unspecified or unix
+                if (publish && addressCache != null) publish(realClient, lbAddress);
+                result.client = realClient;
+            }
+        }
+
+        result.headerLength = view != null ? view.getHeaderLength() : header.getHeaderLength();
+        log.trace("Stripping header: {} bytes, original length: {}", result.headerLength, length);
+    }
+
+    private int decode(byte[] data, ByteBuffer buffer, int offset, int length, ProxyHeaderView view) {
+        if (data == null) {
+            return ProxyProtocolV2Decoder.tryDecode(buffer, view);
+        }
+        if (metrics == null) {
+            // When nobody needs the full header, only decode the source address.
+            return ProxyProtocolV2Decoder.decodeSourceOnly(data, offset, length, view);
+        }
+        return ProxyProtocolV2Decoder.tryDecode(data, offset, length, view);
+    }
+
+    private static boolean startsWithSignature(byte[] data, ByteBuffer buffer, int offset, int length) {
+        ProxyProtocolDecoder.Version version = data != null
+            ? ProxyProtocolDecoder.detect(data, offset, length, true)
+            : ProxyProtocolDecoder.detect(buffer, true);
+        return version == ProxyProtocolDecoder.Version.V2;
+    }
+
+    private void publish(InetSocketAddress client, InetSocketAddress lb) {
+        addressCache.put(client, lb);
+
+        // Taken after the put, so that a reply held concurrently is seen here or by unresolved
+        PendingReplyBuffer pending = pendingReplies;
+        if (pending != null) {
+            flush(pending, client, lb);
+        }
+    }
+
+    // The buffer sends the replies from its executor, so the receiving thread does not block
+    private void flush(PendingReplyBuffer pending, InetSocketAddress client, InetSocketAddress lb) {
+        pending.release(client, lb, replySink);
+    }
+
+    /**
+     * Maps a client address back to the load balancer it was received through.
+     *
+     * <p>When the address cache tracks its {@link ProxyAddressCache#version() version}, each
+     * thread remembers the last client it sent to, so that replying to it again skips the
+     * cache lookup until the cache changes.
+     *
+     * @return the address to send to, or null if the datagram must be dropped
+     */
+    InetSocketAddress resolve(InetSocketAddress client) {
+        InetSocketAddress lb = null;
+        if (addressCache != null) {
+            // Read before the lookup, so that a concurrent change makes the memo stale, never wrong
+            long version = addressCache.version();
+            LastClient last = version >= 0 ? lastClient.get() : null;
+            if (last != null && last.version == version && client.equals(last.client)) {
+                lb = last.lb;
+            } else {
+                lb = addressCache.get(client);
+                if (lb != null && last != null) {
+                    last.client = client;
+                    last.lb = lb;
+                    last.version = version;
+                }
+            }
+        }
+
+        if (lb != null) {
+            if (metrics != null) metrics.onCacheHit(client);
+            return lb;
+        } else if (addressCache != null) {
+            // Cache miss: unable to map client to load balancer address,
+            if (pendingReplies == null) {
+                log.warn("Cache miss for client {}; unable to map to load balancer address, dropping packet.", client);
+            }
+            if (metrics != null) metrics.onCacheMiss(client);
+            return null;
+        }
+        // No cache: deliver original packet
+        return client;
+    }
+
+    /**
+     * Handles a datagram {@link #resolve} could not map: it is held until the client is
+     * mapped again if a pending reply buffer is set, and dropped otherwise.
+     *
+     * @param payload the datagram, between its position and limit, which are left unchanged
+     */
+    void unresolved(InetSocketAddress client, ByteBuffer payload) {
+        PendingReplyBuffer pending = pendingReplies;
+        if (pending == null) {
+            return;
+        }
+        if (pending.hold(client, payload)) {
+            log.debug("Cache miss for client {}; holding reply until it is mapped again.", client);
+            // A datagram may have mapped the client, and flushed its replies, between the cache
+            // miss and the hold: check again so that this reply is not left behind. Flushing
+            // takes after the cache put, so either this check or that flush sees the reply.
+            InetSocketAddress lb = addressCache != null ? addressCache.get(client) : null;
+            if (lb != null) {
+                flush(pending, client, lb);
+            }
+        } else {
+            log.warn("Cache miss for client {}; pending reply limits reached, dropping packet.", client);
+        }
+    }
+}
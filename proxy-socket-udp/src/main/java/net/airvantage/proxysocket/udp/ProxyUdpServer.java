@@ -0,0 +1,308 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * UDP listener spreading the receive load over several cores: it binds one
+ * {@link ProxyDatagramChannel} per worker to the same port with SO_REUSEPORT, and the kernel
+ * distributes flows across them. Each worker has its own receive thread and direct buffer.
+ *
+ * <p>All workers share one {@link ProxyAddressCache}, so a reply sent through any worker, or
+ * through {@link #send(ByteBuffer, SocketAddress)}, reaches the load balancer the client was
+ * received through.
+ *
+ * <p>Example usage:
+ * <pre>
+ * ProxyUdpServer server = new ProxyUdpServer.Builder()
+ *     .bind(new InetSocketAddress(5683))
+ *     .workers(4)
+ *     .handler((channel, payload, client) -> channel.send(payload, client)) // echo
+ *     .build();
+ * server.start();
+ * </pre>
+ *
+ * Thread-safety: This class is thread-safe. The handler is called concurrently from every
+ * worker thread and must be thread-safe.
+ */
+public class ProxyUdpServer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ProxyUdpServer.class);
+
+    /**
+     * Callback invoked on a worker thread for each received datagram.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param channel the channel the datagram was received on, usable to reply
+         * @param payload the datagram payload, between its position and limit; only valid
+         *                until the method returns
+         * @param client the real client address, or the sender address if not proxied
+         */
+        void onDatagram(ProxyDatagramChannel channel, ByteBuffer payload, SocketAddress client) throws IOException;
+    }
+
+    private final SocketAddress bindAddress;
+    private final int workerCount;
+    private final int bufferSize;
+    private final ProxyAddressCache cache;
+    private final ProxyProtocolMetricsListener metrics;
+    private final Predicate<InetSocketAddress> predicate;
+    private final Handler handler;
+    private final ThreadFactory threadFactory;
+
+    private volatile List<ProxyDatagramChannel> channels = List.of();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    private ProxyUdpServer(Builder b) {
+        this.bindAddress = b.bindAddress;
+        this.workerCount = b.workers;
+        this.bufferSize = b.bufferSize;
+        this.cache = b.cache != null ? b.cache : new ConcurrentMapProxyAddressCache();
+        this.metrics = b.metrics;
+        this.predicate = b.predicate;
+        this.handler = b.handler;
+        this.threadFactory = b.threadFactory != null ? b.threadFactory : defaultThreadFactory();
+    }
+
+    /**
+     * Binds every worker channel and starts the worker threads.
+     *
+     * @throws UnsupportedOperationException if several workers are requested and the platform
+     *         does not support SO_REUSEPORT
+     */
+    public synchronized void start() throws IOException {
+        if (running || !channels.isEmpty()) {
+            throw new IllegalStateException("Server already started");
+        }
+        List<ProxyDatagramChannel> opened = new ArrayList<>(workerCount);
+        try {
+            SocketAddress address = bindAddress;
+            for (int i = 0; i < workerCount; i++) {
+                DatagramChannel dc = DatagramChannel.open();
+                ProxyDatagramChannel channel = new ProxyDatagramChannel(dc, cache, metrics, predicate);
+                opened.add(channel);
+                if (workerCount > 1) {
+                    if (!dc.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                        throw new UnsupportedOperationException("SO_REUSEPORT is not supported on this platform");
+                    }
+                    dc.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                }
+                channel.bind(address);
+                // With an ephemeral port, the next workers bind the port chosen for the first one
+                address = channel.getLocalAddress();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeChannels(opened);
+            throw e;
+        }
+
+        channels = List.copyOf(opened);
+        running = true;
+        for (ProxyDatagramChannel channel : channels) {
+            Thread thread = threadFactory.newThread(() -> work(channel));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    private void work(ProxyDatagramChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        ReceiveBackoff backoff = new ReceiveBackoff();
+        while (running && channel.isOpen() && !Thread.currentThread().isInterrupted()) {
+            SocketAddress client;
+            try {
+                buffer.clear();
+                client = channel.receive(buffer);
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                LOG.warn("Receive failed; retrying after a pause.", e);
+                if (!backoff.pause()) {
+                    break;
+                }
+                continue;
+            }
+            backoff.reset();
+            try {
+                handler.onDatagram(channel, buffer, client);
+            } catch (Exception e) {
+                LOG.warn("Handler failed for datagram from {}.", client, e);
+            }
+        }
+    }
+
+    /**
+     * Sends a datagram to a client through the first worker channel.
+     *
+     * @see ProxyDatagramChannel#send(ByteBuffer, SocketAddress)
+     */
+    public int send(ByteBuffer src, SocketAddress client) throws IOException {
+        List<ProxyDatagramChannel> current = channels;
+        if (current.isEmpty()) {
+            throw new IllegalStateException("Server not started");
+        }
+        return current.get(0).send(src, client);
+    }
+
+    /**
+     * @return the address all workers are bound to, or null if not started
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        List<ProxyDatagramChannel> current = channels;
+        return current.isEmpty() ? null : current.get(0).getLocalAddress();
+    }
+
+    /**
+     * @return the worker channels, e.g. to tune socket options
+     */
+    public List<ProxyDatagramChannel> channels() {
+        return channels;
+    }
+
+    public ProxyAddressCache getAddressCache() {
+        return cache;
+    }
+
+    /**
+     * Closes every worker channel and waits for the worker threads to terminate. When called
+     * from the handler, the calling worker terminates once the handler returns.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Thread> workers;
+        synchronized (this) {
+            running = false;
+            closeChannels(channels);
+            channels = List.of();
+            workers = new ArrayList<>(threads);
+            threads.clear();
+        }
+        // Joined without holding the lock, so that handlers closing concurrently do not deadlock
+        Thread current = Thread.currentThread();
+        for (Thread thread : workers) {
+            if (thread == current) {
+                continue;
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private static void closeChannels(List<ProxyDatagramChannel> channels) {
+        for (ProxyDatagramChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close worker channel.", e);
+            }
+        }
+    }
+
+    private static ThreadFactory defaultThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "proxy-udp-worker-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static final class Builder {
+        private SocketAddress bindAddress = new InetSocketAddress(0);
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int bufferSize = 2048;
+        private ProxyAddressCache cache;
+        private ProxyProtocolMetricsListener metrics;
+        private Predicate<InetSocketAddress> predicate;
+        private Handler handler;
+        private ThreadFactory threadFactory;
+
+        public Builder bind(SocketAddress address) {
+            this.bindAddress = address;
+            return this;
+        }
+
+        /**
+         * @param workers number of sockets bound to the port, each with its own receive thread;
+         *                defaults to the number of available processors
+         */
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * @param bufferSize receive buffer size per worker, defaults to 2048; longer datagrams are truncated
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param cache cache shared by all workers; defaults to a {@link ConcurrentMapProxyAddressCache}
+         */
+        public Builder cache(ProxyAddressCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public Builder metrics(ProxyProtocolMetricsListener metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder trustedProxy(Predicate<InetSocketAddress> predicate) {
+            this.predicate = predicate;
+            return this;
+        }
+
+        public Builder handler(Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        /**
+         * @param threadFactory factory of the worker threads; defaults to daemon platform threads
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        public ProxyUdpServer build() {
+            if (handler == null || bindAddress == null || workers <= 0 || bufferSize <= 0) {
+                throw new IllegalArgumentException("Invalid arguments");
+            }
+            return new ProxyUdpServer(this);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+/**
+ * Pause taken by a server receive loop after a failed receive, doubling with each consecutive
+ * failure up to a maximum, so that a persistent error does not spin a core.
+ *
+ * Thread-safety: This class is not thread-safe; each receive loop owns its instance.
+ */
+final class ReceiveBackoff {
+    private static final long MIN_PAUSE_MILLIS = 1;
+    private static final long MAX_PAUSE_MILLIS = 1000;
+
+    private long pauseMillis;
+
+    /**
+     * Called after a successful receive, so that the next failure pauses briefly again.
+     */
+    void reset() {
+        pauseMillis = 0;
+    }
+
+    /**
+     * Sleeps after a failed receive.
+     *
+     * @return false if the thread was interrupted, in which case its interrupt status is set
+     */
+    boolean pause() {
+        pauseMillis = pauseMillis == 0 ? MIN_PAUSE_MILLIS : Math.min(pauseMillis * 2, MAX_PAUSE_MILLIS);
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
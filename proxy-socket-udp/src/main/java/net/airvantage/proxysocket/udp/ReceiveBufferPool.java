@@ -0,0 +1,187 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import java.net.DatagramPacket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed pool of receive buffers carved out of a single slab, so that sustained receiving
+ * allocates nothing per datagram.
+ *
+ * <p>A {@link #direct(int, int) direct} pool lives off-heap and serves
+ * {@link ProxyDatagramChannel#receive(PooledBuffer)}. A {@link #heap(int, int) heap} pool also
+ * exposes each buffer as a {@link DatagramPacket} for
+ * {@link ProxyDatagramSocket#receive(PooledBuffer)}.
+ *
+ * <p>Receiving narrows the buffer (or packet) to the payload; {@link PooledBuffer#reset()}
+ * restores its original offset and capacity, and the receive methods taking a pooled buffer
+ * call it first. Buffers must be explicitly {@link PooledBuffer#release() released}.
+ *
+ * Thread-safety: The pool is thread-safe. A pooled buffer must only be used by the thread
+ * that acquired it, until released.
+ */
+public final class ReceiveBufferPool {
+
+    /**
+     * One buffer of the pool.
+     */
+    public static final class PooledBuffer {
+        private final ReceiveBufferPool pool;
+        private final ByteBuffer buffer;
+        private final DatagramPacket packet;
+        private final int offset;
+        private final int capacity;
+        private boolean available = true;
+
+        private PooledBuffer(ReceiveBufferPool pool, ByteBuffer buffer, DatagramPacket packet, int offset, int capacity) {
+            this.pool = pool;
+            this.buffer = buffer;
+            this.packet = packet;
+            this.offset = offset;
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return the buffer, positioned on the payload after a receive
+         */
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * @return the packet backed by the slab, for heap pools only
+         * @throws UnsupportedOperationException for direct pools
+         */
+        public DatagramPacket packet() {
+            if (packet == null) {
+                throw new UnsupportedOperationException("Direct buffers have no DatagramPacket");
+            }
+            return packet;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Restores the full capacity, at the original offset, of the buffer and packet.
+         */
+        public PooledBuffer reset() {
+            buffer.clear();
+            if (packet != null) {
+                packet.setData(packet.getData(), offset, capacity);
+            }
+            return this;
+        }
+
+        /**
+         * Narrows the buffer to the payload the packet was narrowed to by a receive.
+         */
+        void syncFromPacket() {
+            int start = packet.getOffset() - offset;
+            buffer.limit(start + packet.getLength()).position(start);
+        }
+
+        /**
+         * Returns the buffer to its pool. It must not be used afterwards.
+         *
+         * @throws IllegalStateException if the buffer was already released
+         */
+        public void release() {
+            if (available) {
+                throw new IllegalStateException("Buffer already released");
+            }
+            available = true;
+            reset();
+            pool.free.add(this);
+        }
+    }
+
+    private final BlockingQueue<PooledBuffer> free;
+    private final int bufferSize;
+    private final boolean direct;
+
+    private ReceiveBufferPool(int count, int bufferSize, boolean direct) {
+        if (count <= 0 || bufferSize <= 0 || (long) count * bufferSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid arguments");
+        }
+        this.free = new ArrayBlockingQueue<>(count);
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+
+        if (direct) {
+            ByteBuffer slab = ByteBuffer.allocateDirect(count * bufferSize);
+            for (int i = 0; i < count; i++) {
+                free.add(new PooledBuffer(this, slab.slice(i * bufferSize, bufferSize), null, 0, bufferSize));
+            }
+        } else {
+            byte[] slab = new byte[count * bufferSize];
+            for (int i = 0; i < count; i++) {
+                int offset = i * bufferSize;
+                free.add(new PooledBuffer(this, ByteBuffer.wrap(slab, offset, bufferSize).slice(),
+                    new DatagramPacket(slab, offset, bufferSize), offset, bufferSize));
+            }
+        }
+    }
+
+    /**
+     * Creates a pool of off-heap buffers.
+     *
+     * @param count number of buffers
+     * @param bufferSize size of each buffer; longer datagrams are truncated
+     */
+    public static ReceiveBufferPool direct(int count, int bufferSize) {
+        return new ReceiveBufferPool(count, bufferSize, true);
+    }
+
+    /**
+     * Creates a pool of heap buffers, also usable as {@link DatagramPacket}s.
+     *
+     * @param count number of buffers
+     * @param bufferSize size of each buffer; longer datagrams are truncated
+     */
+    public static ReceiveBufferPool heap(int count, int bufferSize) {
+        return new ReceiveBufferPool(count, bufferSize, false);
+    }
+
+    /**
+     * @return a buffer, or null if they are all in use
+     */
+    public PooledBuffer tryAcquire() {
+        return claim(free.poll());
+    }
+
+    /**
+     * Waits until a buffer is released if they are all in use.
+     */
+    public PooledBuffer acquire() throws InterruptedException {
+        return claim(free.take());
+    }
+
+    private static PooledBuffer claim(PooledBuffer buffer) {
+        if (buffer != null) {
+            buffer.available = false;
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the number of buffers not in use
+     */
+    public int available() {
+        return free.size();
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import net.airvantage.proxysocket.tools.metrics.LongAdderMetricsListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AsyncDatagramSender load balancer mapping and overflow policies.
+ */
+class AsyncDatagramSenderTest {
+
+    private ConcurrentMapProxyAddressCache cache;
+    private ProxyDatagramSocket socket;
+    private DatagramSocket balancer;
+    private InetSocketAddress realClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        cache = new ConcurrentMapProxyAddressCache();
+        socket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), cache, null, null);
+        balancer = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        balancer.setSoTimeout(1000);
+        realClient = new InetSocketAddress("10.1.2.3", 40000);
+        cache.put(realClient, (InetSocketAddress) balancer.getLocalSocketAddress());
+    }
+
+    @AfterEach
+    void tearDown() {
+        socket.close();
+        balancer.close();
+    }
+
+    private DatagramPacket packet(InetSocketAddress client, int value) {
+        return new DatagramPacket(new byte[]{(byte) value}, 1, client);
+    }
+
+    private int receiveValue() throws Exception {
+        DatagramPacket received = new DatagramPacket(new byte[16], 16);
+        balancer.receive(received);
+        assertEquals(1, received.getLength());
+        return received.getData()[0];
+    }
+
+    @Test
+    void sendsQueuedPacketsInOrderThroughBalancer() throws Exception {
+        InetSocketAddress unknown = new InetSocketAddress("10.9.9.9", 1);
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder().socket(socket).batchSize(4).build();
+        sender.start();
+        try (sender) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(sender.send(packet(i == 5 ? unknown : realClient, i)));
+            }
+            for (int i = 0; i < 10; i++) {
+                if (i != 5) { // cache miss: dropped
+                    assertEquals(i, receiveValue());
+                }
+            }
+        }
+        assertEquals(0, sender.droppedCount());
+        assertThrows(IllegalStateException.class, () -> sender.send(packet(realClient, 0)));
+    }
+
+    @Test
+    void reportsCacheHitsAndMissesPerPacket() throws Exception {
+        LongAdderMetricsListener metrics = new LongAdderMetricsListener();
+        ProxyDatagramSocket measured = new ProxyDatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), cache, metrics, null);
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder().socket(measured).build();
+        InetSocketAddress unknown = new InetSocketAddress("10.9.9.9", 1);
+        try (measured) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(sender.send(packet(realClient, i)));
+            }
+            assertTrue(sender.send(packet(unknown, 3)));
+            assertTrue(sender.send(packet(unknown, 4)));
+            sender.start();
+            sender.close();
+        }
+        assertEquals(3, metrics.snapshot().cacheHits());
+        assertEquals(2, metrics.snapshot().cacheMisses());
+    }
+
+    @Test
+    void failingPacketIsDroppedWithoutStoppingSender() throws Exception {
+        InetSocketAddress failing = new InetSocketAddress("10.6.6.6", 1);
+        ProxyAddressCache failingCache = mock(ProxyAddressCache.class);
+        when(failingCache.version()).thenReturn(-1L);
+        when(failingCache.get(failing)).thenThrow(new IllegalStateException("cache failure"));
+        when(failingCache.get(realClient)).thenReturn((InetSocketAddress) balancer.getLocalSocketAddress());
+        ProxyDatagramSocket failingSocket = new ProxyDatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), failingCache, null, null);
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder().socket(failingSocket).build();
+        try (failingSocket) {
+            sender.start();
+            assertTrue(sender.send(packet(failing, 1)));
+            assertTrue(sender.send(packet(realClient, 2)));
+            assertEquals(2, receiveValue());
+            sender.close();
+        }
+        assertEquals(1, sender.droppedCount());
+    }
+
+    @Test
+    void closeWithoutStartDropsQueuedPackets() throws Exception {
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder().socket(socket).capacity(1).build();
+        assertTrue(sender.send(packet(realClient, 1)));
+        sender.close();
+        assertEquals(0, sender.pending());
+        assertEquals(1, sender.droppedCount());
+        assertThrows(IllegalStateException.class, () -> sender.send(packet(realClient, 2)));
+    }
+
+    @Test
+    void dropNewestRejectsWhenFull() throws Exception {
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder()
+            .socket(socket)
+            .capacity(2)
+            .overflowPolicy(AsyncDatagramSender.OverflowPolicy.DROP_NEWEST)
+            .build();
+        assertTrue(sender.send(packet(realClient, 1)));
+        assertTrue(sender.send(packet(realClient, 2)));
+        assertFalse(sender.send(packet(realClient, 3)));
+        assertEquals(1, sender.droppedCount());
+
+        sender.start();
+        sender.close();
+        assertEquals(1, receiveValue());
+        assertEquals(2, receiveValue());
+    }
+
+    @Test
+    void dropOldestMakesRoomWhenFull() throws Exception {
+        AsyncDatagramSender sender = new AsyncDatagramSender.Builder()
+            .socket(socket)
+            .capacity(2)
+            .overflowPolicy(AsyncDatagramSender.OverflowPolicy.DROP_OLDEST)
+            .build();
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(sender.send(packet(realClient, i)));
+        }
+        assertEquals(1, sender.droppedCount());
+        assertEquals(2, sender.pending());
+
+        sender.start();
+        sender.close();
+        assertEquals(2, receiveValue());
+        assertEquals(3, receiveValue());
+        assertEquals(0, sender.pending());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncDatagramSender.Builder().build());
+        assertThrows(IllegalArgumentException.class,
+            () -> new AsyncDatagramSender.Builder().socket(socket).capacity(0).build());
+    }
+}
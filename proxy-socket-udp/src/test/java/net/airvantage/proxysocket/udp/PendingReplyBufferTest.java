@@ -0,0 +1,180 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PendingReplyBuffer limits, expiry and flushing through ProxyDatagramSocket.
+ */
+class PendingReplyBufferTest {
+
+    private static final InetSocketAddress CLIENT_A = new InetSocketAddress("10.1.2.3", 40000);
+    private static final InetSocketAddress CLIENT_B = new InetSocketAddress("10.1.2.4", 40000);
+
+    private static ByteBuffer bytes(int length) {
+        return ByteBuffer.wrap(new byte[length]);
+    }
+
+    @Test
+    void takeReturnsHeldRepliesInOrderOnce() {
+        PendingReplyBuffer buffer = new PendingReplyBuffer(100, 1000, Duration.ofMinutes(1));
+        ByteBuffer first = ByteBuffer.wrap(new byte[]{0, 1, 2});
+        first.position(1);
+        assertTrue(buffer.hold(CLIENT_A, first));
+        assertEquals(1, first.position());
+        assertTrue(buffer.hold(CLIENT_A, ByteBuffer.wrap(new byte[]{3})));
+        assertEquals(2, buffer.heldCount());
+        assertEquals(3, buffer.heldBytes());
+
+        assertNull(buffer.take(CLIENT_B));
+        List<byte[]> replies = buffer.take(CLIENT_A);
+        assertEquals(2, replies.size());
+        assertArrayEquals(new byte[]{1, 2}, replies.get(0));
+        assertArrayEquals(new byte[]{3}, replies.get(1));
+        assertNull(buffer.take(CLIENT_A));
+        assertEquals(0, buffer.heldCount());
+        assertEquals(0, buffer.heldBytes());
+    }
+
+    @Test
+    void limitsDropReplies() {
+        PendingReplyBuffer buffer = new PendingReplyBuffer(10, 15, Duration.ofMinutes(1));
+        assertTrue(buffer.hold(CLIENT_A, bytes(8)));
+        assertFalse(buffer.hold(CLIENT_A, bytes(3)));   // per client
+        assertTrue(buffer.hold(CLIENT_B, bytes(7)));
+        assertFalse(buffer.hold(CLIENT_B, bytes(1)));   // total
+        assertEquals(2, buffer.droppedCount());
+        assertEquals(15, buffer.heldBytes());
+    }
+
+    @Test
+    void expiredRepliesAreNotSentAndFreeSpace() throws Exception {
+        PendingReplyBuffer buffer = new PendingReplyBuffer(10, 10, Duration.ofMillis(20));
+        assertTrue(buffer.hold(CLIENT_A, bytes(10)));
+        Thread.sleep(40);
+        assertTrue(buffer.hold(CLIENT_B, bytes(10)), "expired reply makes room");
+        assertEquals(1, buffer.droppedCount());
+        assertNull(buffer.take(CLIENT_A));
+
+        Thread.sleep(40);
+        assertNull(buffer.take(CLIENT_B));
+        assertEquals(2, buffer.droppedCount());
+        assertEquals(0, buffer.heldBytes());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new PendingReplyBuffer(0, 10, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new PendingReplyBuffer(10, 10, Duration.ZERO));
+    }
+
+    @Test
+    void releasedRepliesOfOneClientAreSentInOrderByOneFlush() {
+        List<Runnable> tasks = new ArrayList<>();
+        PendingReplyBuffer buffer = new PendingReplyBuffer(1024, 4096, Duration.ofSeconds(10), tasks::add);
+        List<Integer> sent = new ArrayList<>();
+        ProxyHeaderProcessor.ReplySink sink = (data, lb) -> sent.add(data.length);
+
+        buffer.hold(CLIENT_A, bytes(1));
+        buffer.release(CLIENT_A, CLIENT_B, sink);
+        // Released while the first flush is still pending: queued behind it
+        buffer.hold(CLIENT_A, bytes(2));
+        buffer.release(CLIENT_A, CLIENT_B, sink);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(List.of(1, 2), sent);
+
+        buffer.hold(CLIENT_A, bytes(3));
+        buffer.release(CLIENT_A, CLIENT_B, sink);
+        assertEquals(2, tasks.size(), "a new flush starts once the previous one ended");
+    }
+
+    @Test
+    void releaseAfterCloseDropsReplies() {
+        PendingReplyBuffer buffer = new PendingReplyBuffer(1024, 4096, Duration.ofSeconds(10));
+        buffer.close();
+        buffer.hold(CLIENT_A, bytes(4));
+        buffer.release(CLIENT_A, CLIENT_B, (data, lb) -> fail("sent after close"));
+        assertEquals(1, buffer.droppedCount());
+        assertEquals(0, buffer.heldCount());
+    }
+
+    @Test
+    void socketFlushesHeldRepliesWhenClientIsMappedAgain() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        PendingReplyBuffer pending = new PendingReplyBuffer(1024, 4096, Duration.ofSeconds(10));
+        try (ProxyDatagramSocket socket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), new ConcurrentMapProxyAddressCache(), null, null);
+             DatagramSocket balancer = new DatagramSocket(new InetSocketAddress(loopback, 0))) {
+            socket.setPendingReplyBuffer(pending);
+            socket.setSoTimeout(1000);
+            balancer.setSoTimeout(1000);
+            InetSocketAddress address = (InetSocketAddress) socket.getLocalSocketAddress();
+
+            // The client is unknown, e.g. after a restart: the reply is held
+            byte[] reply = "late reply".getBytes(StandardCharsets.UTF_8);
+            socket.send(new DatagramPacket(reply, reply.length, CLIENT_A));
+            assertEquals(1, pending.heldCount());
+
+            byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(CLIENT_A)
+                .destination(address)
+                .build();
+            byte[] request = Utility.createPacket(header, new byte[]{1});
+            balancer.send(new DatagramPacket(request, request.length, address));
+            DatagramPacket received = new DatagramPacket(new byte[64], 64);
+            socket.receive(received);
+            assertEquals(CLIENT_A, received.getSocketAddress());
+            assertEquals(0, pending.heldCount());
+
+            DatagramPacket flushed = new DatagramPacket(new byte[64], 64);
+            balancer.receive(flushed);
+            assertArrayEquals(reply, Arrays.copyOf(flushed.getData(), flushed.getLength()));
+        }
+    }
+
+    @Test
+    void replyHeldAfterConcurrentMappingIsFlushed() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        PendingReplyBuffer pending = new PendingReplyBuffer(1024, 4096, Duration.ofSeconds(10), Runnable::run);
+        ProxyAddressCache cache = mock(ProxyAddressCache.class);
+        try (ProxyDatagramSocket socket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), cache, null, null);
+             DatagramSocket balancer = new DatagramSocket(new InetSocketAddress(loopback, 0))) {
+            socket.setPendingReplyBuffer(pending);
+            balancer.setSoTimeout(1000);
+            // The client is mapped by another thread right after the send misses the cache
+            when(cache.get(CLIENT_A)).thenReturn(null, (InetSocketAddress) balancer.getLocalSocketAddress());
+
+            byte[] reply = "raced reply".getBytes(StandardCharsets.UTF_8);
+            socket.send(new DatagramPacket(reply, reply.length, CLIENT_A));
+            assertEquals(0, pending.heldCount());
+
+            DatagramPacket flushed = new DatagramPacket(new byte[64], 64);
+            balancer.receive(flushed);
+            assertArrayEquals(reply, Arrays.copyOf(flushed.getData(), flushed.getLength()));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.ProxyAddressCache;
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProxyDatagramChannel header stripping and reply mapping.
+ */
+class ProxyDatagramChannelTest {
+
+    private ProxyDatagramChannel channel;
+    private ConcurrentMapProxyAddressCache cache;
+    private DatagramSocket balancer;
+    private InetSocketAddress channelAddress;
+    private InetSocketAddress realClient;
+    private byte[] proxyHeader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        cache = new ConcurrentMapProxyAddressCache();
+        channel = ProxyDatagramChannel.open(cache, null, null).bind(new InetSocketAddress(loopback, 0));
+        channelAddress = (InetSocketAddress) channel.getLocalAddress();
+        balancer = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        balancer.setSoTimeout(1000);
+
+        realClient = new InetSocketAddress("10.1.2.3", 40000);
+        proxyHeader = new AwsProxyEncoderHelper()
+            .family(ProxyHeader.AddressFamily.AF_INET)
+            .socket(ProxyHeader.TransportProtocol.DGRAM)
+            .source(realClient)
+            .destination(channelAddress)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.close();
+        balancer.close();
+    }
+
+    private void sendFromBalancer(byte[] packet) throws Exception {
+        balancer.send(new DatagramPacket(packet, packet.length, channelAddress));
+    }
+
+    @Test
+    void receiveStripsHeaderInPlaceAndRepliesThroughBalancer() throws Exception {
+        byte[] payload = "hello".getBytes(StandardCharsets.UTF_8);
+        sendFromBalancer(Utility.createPacket(proxyHeader, payload));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2048);
+        buffer.position(8);
+        assertEquals(realClient, channel.receive(buffer));
+        assertEquals(8 + proxyHeader.length, buffer.position());
+        assertEquals(payload.length, buffer.remaining());
+        byte[] received = new byte[buffer.remaining()];
+        buffer.get(received);
+        assertArrayEquals(payload, received);
+        assertEquals(balancer.getLocalSocketAddress(), cache.get(realClient));
+
+        byte[] reply = "world".getBytes(StandardCharsets.UTF_8);
+        assertEquals(reply.length, channel.send(ByteBuffer.wrap(reply), realClient));
+        DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+        balancer.receive(packet);
+        assertArrayEquals(reply, java.util.Arrays.copyOf(packet.getData(), packet.getLength()));
+    }
+
+    @Test
+    void receiveDeliversUnproxiedDatagramWhole() throws Exception {
+        byte[] payload = "direct".getBytes(StandardCharsets.UTF_8);
+        sendFromBalancer(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2048);
+        assertEquals(balancer.getLocalSocketAddress(), channel.receive(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(payload.length, buffer.remaining());
+    }
+
+    @Test
+    void sendToUnknownClientIsDropped() throws Exception {
+        assertEquals(-1, channel.send(ByteBuffer.wrap(new byte[4]), new InetSocketAddress("10.9.9.9", 1)));
+    }
+
+    @Test
+    void nonBlockingWithSelector() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(2048);
+        channel.configureBlocking(false);
+        assertNull(channel.receive(buffer));
+
+        try (Selector selector = Selector.open()) {
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            assertSame(channel, key.attachment());
+
+            byte[] payload = "selected".getBytes(StandardCharsets.UTF_8);
+            sendFromBalancer(Utility.createPacket(proxyHeader, payload));
+            assertEquals(1, selector.select(1000));
+
+            ProxyDatagramChannel ready = (ProxyDatagramChannel) selector.selectedKeys().iterator().next().attachment();
+            buffer.clear();
+            assertEquals(realClient, ready.receive(buffer));
+            assertEquals(payload.length, buffer.remaining());
+        }
+    }
+
+    @Test
+    void receiveBatchDrainsQueuedDatagrams() throws Exception {
+        ProxyAddressCache mockCache = mock(ProxyAddressCache.class);
+        try (ProxyDatagramChannel batchChannel = ProxyDatagramChannel.open(mockCache, null, null)) {
+            batchChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).configureBlocking(false);
+            InetSocketAddress target = (InetSocketAddress) batchChannel.getLocalAddress();
+            byte[] first = Utility.createPacket(proxyHeader, new byte[]{1});
+            byte[] second = Utility.createPacket(proxyHeader, new byte[]{2, 2});
+            byte[] direct = {3, 3, 3};
+            balancer.send(new DatagramPacket(first, first.length, target));
+            balancer.send(new DatagramPacket(second, second.length, target));
+            balancer.send(new DatagramPacket(direct, direct.length, target));
+
+            ByteBuffer[] buffers = new ByteBuffer[4];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(256);
+            }
+            SocketAddress[] addresses = new SocketAddress[4];
+            assertEquals(3, batchChannel.receiveBatch(buffers, addresses));
+
+            assertEquals(realClient, addresses[0]);
+            assertEquals(1, buffers[0].remaining());
+            assertEquals(realClient, addresses[1]);
+            assertEquals(2, buffers[1].remaining());
+            assertEquals(balancer.getLocalSocketAddress(), addresses[2]);
+            assertEquals(3, buffers[2].remaining());
+
+            // Same client through the same load balancer: a single cache update
+            verify(mockCache, times(1)).put(realClient, (InetSocketAddress) balancer.getLocalSocketAddress());
+
+            assertEquals(0, batchChannel.receiveBatch(buffers, addresses));
+        }
+    }
+
+    @Test
+    void receiveBatchInBlockingModeDrainsAfterFirstDatagram() throws Exception {
+        ProxyAddressCache mockCache = mock(ProxyAddressCache.class);
+        try (ProxyDatagramChannel batchChannel = ProxyDatagramChannel.open(mockCache, null, null)) {
+            batchChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            InetSocketAddress target = (InetSocketAddress) batchChannel.getLocalAddress();
+            for (int i = 1; i <= 3; i++) {
+                byte[] packet = Utility.createPacket(proxyHeader, new byte[i]);
+                balancer.send(new DatagramPacket(packet, packet.length, target));
+            }
+
+            ByteBuffer[] buffers = {ByteBuffer.allocate(256), ByteBuffer.allocate(256), ByteBuffer.allocate(256), ByteBuffer.allocate(256)};
+            SocketAddress[] addresses = new SocketAddress[4];
+            assertEquals(3, batchChannel.receiveBatch(buffers, addresses));
+            assertEquals(3, buffers[2].remaining());
+            assertTrue(batchChannel.channel().isBlocking());
+        }
+    }
+
+    @Test
+    void receiveBatchDeliversDatagramsReceivedBeforeFailure() throws Exception {
+        ProxyAddressCache mockCache = mock(ProxyAddressCache.class);
+        try (ProxyDatagramChannel batchChannel = ProxyDatagramChannel.open(mockCache, null, null)) {
+            batchChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            InetSocketAddress target = (InetSocketAddress) batchChannel.getLocalAddress();
+            for (int i = 1; i <= 2; i++) {
+                byte[] packet = Utility.createPacket(proxyHeader, new byte[i]);
+                balancer.send(new DatagramPacket(packet, packet.length, target));
+            }
+
+            // The read-only buffer makes the second receive fail
+            ByteBuffer[] buffers = {ByteBuffer.allocate(256), ByteBuffer.allocate(256).asReadOnlyBuffer()};
+            SocketAddress[] addresses = new SocketAddress[2];
+            assertThrows(IllegalArgumentException.class, () -> batchChannel.receiveBatch(buffers, addresses));
+            assertEquals(realClient, addresses[0]);
+            assertEquals(1, buffers[0].remaining());
+            verify(mockCache).put(realClient, (InetSocketAddress) balancer.getLocalSocketAddress());
+            assertTrue(batchChannel.channel().isBlocking());
+        }
+    }
+}
@@ -4,10 +4,15 @@
  */
 package net.airvantage.proxysocket.udp;
 
+import net.airvantage.proxysocket.core.ParseStatus;
 import net.airvantage.proxysocket.core.ProxyAddressCache;
 import net.airvantage.proxysocket.core.ProxyProtocolMetricsListener;
+import net.airvantage.proxysocket.core.ProxyProtocolParseException;
 import net.airvantage.proxysocket.core.v2.ProxyHeader;
 import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyProtocolV2Encoder;
+import net.airvantage.proxysocket.tools.cache.DecodedHeaderCache;
+import net.airvantage.proxysocket.tools.cache.InetSocketAddressPool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,6 +84,8 @@ class ProxyDatagramSocketTest {
         ArgumentCaptor<InetSocketAddress> clientCaptor = ArgumentCaptor.forClass(InetSocketAddress.class);
         ArgumentCaptor<InetSocketAddress> lbCaptor = ArgumentCaptor.forClass(InetSocketAddress.class);
         verify(mockCache).put(clientCaptor.capture(), lbCaptor.capture());
+        // Only the send side remembers mappings
+        verify(mockCache, never()).version();
 
         assertEquals(realClient, clientCaptor.getValue());
         assertEquals(serviceAddress.getAddress(), lbCaptor.getValue().getAddress());
@@ -136,6 +143,45 @@ class ProxyDatagramSocketTest {
         }
     }
 
+    @Test
+    void send_toSameClient_skipsCacheLookupUntilCacheChanges() throws Exception {
+        byte[] payload = "response".getBytes(StandardCharsets.UTF_8);
+        when(mockCache.version()).thenReturn(7L);
+        when(mockCache.get(realClient)).thenReturn(serviceAddress);
+
+        try (java.net.DatagramSocket receiver = new java.net.DatagramSocket(serviceAddress)) {
+            receiver.setSoTimeout(1000);
+            for (int i = 0; i < 3; i++) {
+                socket.send(new DatagramPacket(payload, payload.length, realClient));
+                receiver.receive(new DatagramPacket(buffer, buffer.length));
+            }
+            verify(mockCache, times(1)).get(realClient);
+            verify(mockMetrics, times(3)).onCacheHit(realClient);
+
+            // A changed cache invalidates the remembered mapping
+            when(mockCache.version()).thenReturn(8L);
+            socket.send(new DatagramPacket(payload, payload.length, realClient));
+            receiver.receive(new DatagramPacket(buffer, buffer.length));
+            verify(mockCache, times(2)).get(realClient);
+        }
+    }
+
+    @Test
+    void send_withUntrackedCacheVersion_alwaysQueriesCache() throws Exception {
+        byte[] payload = "response".getBytes(StandardCharsets.UTF_8);
+        when(mockCache.version()).thenReturn(-1L);
+        when(mockCache.get(realClient)).thenReturn(serviceAddress);
+
+        try (java.net.DatagramSocket receiver = new java.net.DatagramSocket(serviceAddress)) {
+            receiver.setSoTimeout(1000);
+            for (int i = 0; i < 2; i++) {
+                socket.send(new DatagramPacket(payload, payload.length, realClient));
+                receiver.receive(new DatagramPacket(buffer, buffer.length));
+            }
+            verify(mockCache, times(2)).get(realClient);
+        }
+    }
+
     @Test
     void send_withCacheMiss_dropsPacket() throws Exception {
         // Arrange
@@ -252,12 +298,141 @@ class ProxyDatagramSocketTest {
         DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
         socket.receive(receivePacket);
 
-        // Assert - onParseError should be called
-        verify(mockMetrics).onParseError(any(Exception.class));
+        // Assert - onParseError should be called with the status of the failure
+        ArgumentCaptor<Exception> errorCaptor = ArgumentCaptor.forClass(Exception.class);
+        verify(mockMetrics).onParseError(errorCaptor.capture());
+        assertEquals(ParseStatus.INVALID_SIGNATURE,
+                ((ProxyProtocolParseException) errorCaptor.getValue()).getStatus());
 
         // Original packet should be delivered unchanged
         assertEquals(garbage.length, receivePacket.getLength());
     }
 
-}
+    @Test
+    void receive_withShortSignaturePrefix_isNotTruncatedHeader() throws Exception {
+        // Arrange - a short payload starting like the v2 signature
+        Utility.sendPacket(new byte[] {0x0D, 0x0A}, backendAddress);
+
+        // Act
+        DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+        socket.receive(receivePacket);
+
+        // Assert - reported as a missing header, delivered unchanged
+        ArgumentCaptor<Exception> errorCaptor = ArgumentCaptor.forClass(Exception.class);
+        verify(mockMetrics).onParseError(errorCaptor.capture());
+        assertEquals(ParseStatus.INVALID_SIGNATURE,
+                ((ProxyProtocolParseException) errorCaptor.getValue()).getStatus());
+        assertEquals(2, receivePacket.getLength());
+    }
+
+    @Test
+    void receive_withoutMetrics_stripsHeaderAndMapsClient() throws Exception {
+        try (ProxyDatagramSocket noMetricsSocket = new ProxyDatagramSocket(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), mockCache, null, null)) {
+            InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), noMetricsSocket.getLocalPort());
+            byte[] payload = "strip-only".getBytes(StandardCharsets.UTF_8);
+            Utility.sendPacket(Utility.createPacket(proxyHeader, payload), serviceAddress, target);
+
+            DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+            noMetricsSocket.receive(receivePacket);
+
+            verify(mockCache).put(eq(realClient), any(InetSocketAddress.class));
+            assertEquals(realClient, receivePacket.getSocketAddress());
+            assertEquals(payload.length, receivePacket.getLength());
+            assertArrayEquals(payload,
+                    java.util.Arrays.copyOfRange(receivePacket.getData(),
+                            receivePacket.getOffset(),
+                            receivePacket.getOffset() + receivePacket.getLength()));
+
+            // Garbage from a trusted source is delivered untouched
+            byte[] garbage = "not-a-proxy-header".getBytes(StandardCharsets.UTF_8);
+            Utility.sendPacket(garbage, target);
+            DatagramPacket garbagePacket = new DatagramPacket(new byte[2048], 2048);
+            noMetricsSocket.receive(garbagePacket);
+            assertEquals(garbage.length, garbagePacket.getLength());
+        }
+    }
+
+    @Test
+    void receive_withAddressPool_reusesClientAddress() throws Exception {
+        socket.setAddressPool(new InetSocketAddressPool(128));
+        byte[] packet = Utility.createPacket(proxyHeader, "pooled".getBytes(StandardCharsets.UTF_8));
 
+        for (int i = 0; i < 2; i++) {
+            Utility.sendPacket(packet, backendAddress);
+            socket.receive(new DatagramPacket(buffer, buffer.length));
+        }
+
+        ArgumentCaptor<InetSocketAddress> clientCaptor = ArgumentCaptor.forClass(InetSocketAddress.class);
+        verify(mockCache, times(2)).put(clientCaptor.capture(), any());
+        assertEquals(realClient, clientCaptor.getAllValues().get(0));
+        assertSame(clientCaptor.getAllValues().get(0), clientCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    void receive_withChecksumVerification_rejectsCorruptedHeader() throws Exception {
+        socket.setVerifyChecksum(true);
+        byte[] header = new byte[64];
+        int len = ProxyProtocolV2Encoder.writeIPv4(header, 0, ProxyHeader.TransportProtocol.DGRAM,
+                0x7F000001, 0x7F000001, realClient.getPort(), serviceAddress.getPort());
+        len = ProxyProtocolV2Encoder.appendCrc32c(header, 0);
+        byte[] payload = "checked".getBytes(StandardCharsets.UTF_8);
+        byte[] packet = Utility.createPacket(java.util.Arrays.copyOf(header, len), payload);
+
+        Utility.sendPacket(packet, backendAddress);
+        DatagramPacket valid = new DatagramPacket(buffer, buffer.length);
+        socket.receive(valid);
+        assertEquals(realClient, valid.getSocketAddress());
+        assertEquals(payload.length, valid.getLength());
+
+        packet[20] ^= 0x01; // corrupt the destination address
+        Utility.sendPacket(packet, backendAddress);
+        DatagramPacket corrupted = new DatagramPacket(new byte[2048], 2048);
+        socket.receive(corrupted);
+        assertEquals(packet.length, corrupted.getLength());
+
+        ArgumentCaptor<Exception> errorCaptor = ArgumentCaptor.forClass(Exception.class);
+        verify(mockMetrics).onParseError(errorCaptor.capture());
+        assertEquals(ParseStatus.CHECKSUM_MISMATCH,
+                ((ProxyProtocolParseException) errorCaptor.getValue()).getStatus());
+    }
+
+    @Test
+    void receive_withHeaderCache_reusesDecodedHeader() throws Exception {
+        DecodedHeaderCache cache = new DecodedHeaderCache(16, false);
+        socket.setHeaderCache(cache);
+        byte[] payload = "cached".getBytes(StandardCharsets.UTF_8);
+        byte[] packet = Utility.createPacket(proxyHeader, payload);
+
+        for (int i = 0; i < 2; i++) {
+            Utility.sendPacket(packet, backendAddress);
+            DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+            socket.receive(receivePacket);
+            assertEquals(realClient, receivePacket.getSocketAddress());
+            assertEquals(payload.length, receivePacket.getLength());
+        }
+
+        assertEquals(1, cache.hitCount());
+        ArgumentCaptor<ProxyHeader> headerCaptor = ArgumentCaptor.forClass(ProxyHeader.class);
+        verify(mockMetrics, times(2)).onHeaderParsed(headerCaptor.capture());
+        assertSame(headerCaptor.getAllValues().get(0), headerCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    void receive_withHeaderCache_reportsParseErrorOfRejectedDatagram() throws Exception {
+        DecodedHeaderCache cache = new DecodedHeaderCache(16, false);
+        socket.setHeaderCache(cache);
+        byte[] garbage = "not-a-proxy-header".getBytes(StandardCharsets.UTF_8);
+        Utility.sendPacket(garbage, backendAddress);
+
+        DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+        socket.receive(receivePacket);
+
+        ArgumentCaptor<Exception> errorCaptor = ArgumentCaptor.forClass(Exception.class);
+        verify(mockMetrics).onParseError(errorCaptor.capture());
+        assertEquals(ParseStatus.INVALID_SIGNATURE,
+                ((ProxyProtocolParseException) errorCaptor.getValue()).getStatus());
+        assertEquals(garbage.length, receivePacket.getLength());
+        assertEquals(0, cache.missCount());
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProxyDispatchServer dispatching and per-client ordering.
+ */
+class ProxyDispatchServerTest {
+
+    private ProxyDatagramSocket socket;
+    private DatagramSocket balancer;
+    private InetSocketAddress socketAddress;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        socket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), new ConcurrentMapProxyAddressCache(), null, null);
+        socketAddress = (InetSocketAddress) socket.getLocalSocketAddress();
+        balancer = new DatagramSocket(new InetSocketAddress(loopback, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        socket.close();
+        balancer.close();
+    }
+
+    private void send(InetSocketAddress client, byte value) throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+            .family(ProxyHeader.AddressFamily.AF_INET)
+            .socket(ProxyHeader.TransportProtocol.DGRAM)
+            .source(client)
+            .destination(socketAddress)
+            .build();
+        byte[] packet = Utility.createPacket(header, new byte[]{value});
+        balancer.send(new DatagramPacket(packet, packet.length, socketAddress));
+    }
+
+    @Test
+    void blockingHandlersRunConcurrently() throws Exception {
+        InetSocketAddress slow = new InetSocketAddress("10.0.0.1", 1000);
+        InetSocketAddress fast = new InetSocketAddress("10.0.0.2", 2000);
+        CountDownLatch fastHandled = new CountDownLatch(1);
+        CountDownLatch slowReleased = new CountDownLatch(1);
+
+        ProxyDispatchServer server = new ProxyDispatchServer.Builder()
+            .socket(socket)
+            .handler((s, packet) -> {
+                if (packet.getSocketAddress().equals(slow)) {
+                    // Blocks until the other client has been served
+                    if (fastHandled.await(2, TimeUnit.SECONDS)) {
+                        slowReleased.countDown();
+                    }
+                } else {
+                    fastHandled.countDown();
+                }
+            })
+            .build();
+        try (server) {
+            server.start();
+            send(slow, (byte) 1);
+            send(fast, (byte) 2);
+            assertTrue(slowReleased.await(3, TimeUnit.SECONDS));
+        }
+        assertTrue(socket.isClosed());
+    }
+
+    @Test
+    void handlerOnReceiveThreadMayCloseServer() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        ProxyDispatchServer[] holder = new ProxyDispatchServer[1];
+        ExecutorService direct = new AbstractExecutorService() {
+            @Override public void execute(Runnable command) { command.run(); }
+            @Override public void shutdown() { }
+            @Override public List<Runnable> shutdownNow() { return List.of(); }
+            @Override public boolean isShutdown() { return false; }
+            @Override public boolean isTerminated() { return false; }
+            @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return false; }
+        };
+        ProxyDispatchServer server = new ProxyDispatchServer.Builder()
+            .socket(socket)
+            .executor(direct)
+            .handler((s, packet) -> {
+                holder[0].close();
+                closed.countDown();
+            })
+            .build();
+        holder[0] = server;
+        server.start();
+        send(new InetSocketAddress("10.0.0.4", 4000), (byte) 1);
+
+        assertTrue(closed.await(2, TimeUnit.SECONDS), "close() from the receive thread must not deadlock");
+        assertTrue(socket.isClosed());
+    }
+
+    @Test
+    void orderedPerClientKeepsSequence() throws Exception {
+        InetSocketAddress client = new InetSocketAddress("10.0.0.3", 3000);
+        List<Byte> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(20);
+
+        ProxyDispatchServer server = new ProxyDispatchServer.Builder()
+            .socket(socket)
+            .orderedPerClient(true)
+            .handler((s, packet) -> {
+                assertEquals(client, packet.getSocketAddress());
+                byte value = packet.getData()[packet.getOffset()];
+                // Earlier datagrams take longer, so unordered handling would reorder them
+                Thread.sleep(value % 2 == 0 ? 3 : 0);
+                seen.add(value);
+                done.countDown();
+            })
+            .build();
+        try (server) {
+            server.start();
+            for (byte i = 0; i < 20; i++) {
+                send(client, i);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals((byte) i, seen.get(i));
+        }
+    }
+
+    @Test
+    void orderedPerClientSurvivesRejectedTask() throws Exception {
+        InetSocketAddress client = new InetSocketAddress("10.0.0.5", 5000);
+        List<Byte> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        AtomicInteger submissions = new AtomicInteger();
+        // Rejects the second task, e.g. while saturated
+        ExecutorService rejecting = new AbstractExecutorService() {
+            @Override public void execute(Runnable command) {
+                if (submissions.incrementAndGet() == 2) {
+                    throw new RejectedExecutionException("saturated");
+                }
+                pool.execute(command);
+            }
+            @Override public void shutdown() { }
+            @Override public List<Runnable> shutdownNow() { return List.of(); }
+            @Override public boolean isShutdown() { return false; }
+            @Override public boolean isTerminated() { return false; }
+            @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return false; }
+        };
+
+        ProxyDispatchServer server = new ProxyDispatchServer.Builder()
+            .socket(socket)
+            .executor(rejecting)
+            .orderedPerClient(true)
+            .handler((s, packet) -> {
+                byte value = packet.getData()[packet.getOffset()];
+                // Keeps the next datagrams chained behind this one
+                Thread.sleep(value == 1 ? 200 : 0);
+                seen.add(value);
+                done.countDown();
+            })
+            .build();
+        try (server) {
+            server.start();
+            for (byte i = 1; i <= 3; i++) {
+                send(client, i);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(List.of((byte) 1, (byte) 3), seen);
+        assertEquals(1, server.droppedCount());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SO_REUSEPORT multi-worker ProxyUdpServer.
+ */
+class ProxyUdpServerTest {
+
+    @Test
+    void workersShareCacheAndReplyThroughBalancer() throws Exception {
+        BlockingQueue<SocketAddress> clients = new ArrayBlockingQueue<>(8);
+        ProxyUdpServer server = new ProxyUdpServer.Builder()
+            .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+            .workers(2)
+            .handler((channel, payload, client) -> {
+                clients.add(client);
+                channel.send(payload, client); // echo
+            })
+            .build();
+
+        try (server; DatagramSocket balancer = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+            assertEquals(2, server.channels().size());
+            InetSocketAddress serverAddress = (InetSocketAddress) server.getLocalAddress();
+            assertNotEquals(0, serverAddress.getPort());
+            for (ProxyDatagramChannel channel : server.channels()) {
+                assertEquals(serverAddress, channel.getLocalAddress());
+            }
+            balancer.setSoTimeout(2000);
+
+            InetSocketAddress realClient = new InetSocketAddress("10.1.2.3", 40000);
+            byte[] header = new AwsProxyEncoderHelper()
+                .family(ProxyHeader.AddressFamily.AF_INET)
+                .socket(ProxyHeader.TransportProtocol.DGRAM)
+                .source(realClient)
+                .destination(serverAddress)
+                .build();
+            byte[] payload = "ping".getBytes(StandardCharsets.UTF_8);
+            byte[] packet = Utility.createPacket(header, payload);
+            balancer.send(new DatagramPacket(packet, packet.length, serverAddress));
+
+            assertEquals(realClient, clients.poll(2, TimeUnit.SECONDS));
+            DatagramPacket echo = new DatagramPacket(new byte[64], 64);
+            balancer.receive(echo);
+            assertArrayEquals(payload, Arrays.copyOf(echo.getData(), echo.getLength()));
+
+            // Replies from outside the receiving worker are mapped through the shared cache
+            byte[] push = "push".getBytes(StandardCharsets.UTF_8);
+            assertEquals(push.length, server.send(ByteBuffer.wrap(push), realClient));
+            balancer.receive(echo);
+            assertArrayEquals(push, Arrays.copyOf(echo.getData(), echo.getLength()));
+        }
+        assertTrue(server.channels().isEmpty());
+    }
+
+    @Test
+    void handlerMayCloseServer() throws Exception {
+        BlockingQueue<Thread> closed = new ArrayBlockingQueue<>(1);
+        ProxyUdpServer[] holder = new ProxyUdpServer[1];
+        ProxyUdpServer server = new ProxyUdpServer.Builder()
+            .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+            .workers(1)
+            .handler((channel, payload, client) -> {
+                holder[0].close();
+                closed.add(Thread.currentThread());
+            })
+            .build();
+        holder[0] = server;
+        server.start();
+
+        try (DatagramSocket sender = new DatagramSocket()) {
+            byte[] data = {1};
+            sender.send(new DatagramPacket(data, data.length, server.getLocalAddress()));
+        }
+        Thread worker = closed.poll(2, TimeUnit.SECONDS);
+        assertNotNull(worker, "close() from the handler must not deadlock");
+        worker.join(2000);
+        assertFalse(worker.isAlive());
+        assertTrue(server.channels().isEmpty());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ProxyUdpServer.Builder().build());
+        assertThrows(IllegalArgumentException.class,
+            () -> new ProxyUdpServer.Builder().workers(0).handler((c, p, a) -> { }).build());
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * BSD-3-Clause License.
+ * Copyright (c) 2025 Semtech
+ */
+package net.airvantage.proxysocket.udp;
+
+import net.airvantage.proxysocket.core.v2.AwsProxyEncoderHelper;
+import net.airvantage.proxysocket.core.v2.ProxyHeader;
+import net.airvantage.proxysocket.tools.cache.ConcurrentMapProxyAddressCache;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReceiveBufferPool acquisition, release and reuse across receives.
+ */
+class ReceiveBufferPoolTest {
+
+    private static final InetSocketAddress REAL_CLIENT = new InetSocketAddress("10.1.2.3", 40000);
+
+    private static byte[] proxiedPacket(InetSocketAddress destination, byte[] payload) throws Exception {
+        byte[] header = new AwsProxyEncoderHelper()
+            .family(ProxyHeader.AddressFamily.AF_INET)
+            .socket(ProxyHeader.TransportProtocol.DGRAM)
+            .source(REAL_CLIENT)
+            .destination(destination)
+            .build();
+        return Utility.createPacket(header, payload);
+    }
+
+    @Test
+    void acquireAndReleaseRecycleBuffers() {
+        ReceiveBufferPool pool = ReceiveBufferPool.direct(2, 512);
+        assertTrue(pool.isDirect());
+
+        ReceiveBufferPool.PooledBuffer first = pool.tryAcquire();
+        ReceiveBufferPool.PooledBuffer second = pool.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(pool.tryAcquire());
+        assertTrue(first.buffer().isDirect());
+        assertEquals(512, first.buffer().capacity());
+        assertThrows(UnsupportedOperationException.class, first::packet);
+
+        first.buffer().position(100);
+        first.release();
+        assertThrows(IllegalStateException.class, first::release);
+        assertEquals(1, pool.available());
+        ReceiveBufferPool.PooledBuffer again = pool.tryAcquire();
+        assertSame(first, again);
+        assertEquals(0, again.buffer().position());
+        assertEquals(512, again.buffer().limit());
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> ReceiveBufferPool.heap(0, 512));
+        assertThrows(IllegalArgumentException.class, () -> ReceiveBufferPool.direct(4, 0));
+        assertThrows(IllegalArgumentException.class, () -> ReceiveBufferPool.heap(1 << 16, 1 << 16));
+    }
+
+    @Test
+    void heapBufferIsRestoredBetweenSocketReceives() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        ReceiveBufferPool pool = ReceiveBufferPool.heap(2, 256);
+        ReceiveBufferPool.PooledBuffer buffer = pool.acquire();
+        DatagramPacket packet = buffer.packet();
+        int offset = packet.getOffset();
+
+        try (ProxyDatagramSocket socket = new ProxyDatagramSocket(new InetSocketAddress(loopback, 0), new ConcurrentMapProxyAddressCache(), null, null);
+             DatagramSocket balancer = new DatagramSocket(new InetSocketAddress(loopback, 0))) {
+            socket.setSoTimeout(1000);
+            InetSocketAddress address = (InetSocketAddress) socket.getLocalSocketAddress();
+
+            for (String text : new String[]{"first", "second datagram"}) {
+                byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+                byte[] datagram = proxiedPacket(address, payload);
+                balancer.send(new DatagramPacket(datagram, datagram.length, address));
+
+                socket.receive(buffer);
+                assertSame(packet, buffer.packet());
+                assertEquals(REAL_CLIENT, packet.getSocketAddress());
+                assertEquals(offset + datagram.length - payload.length, packet.getOffset());
+                assertEquals(payload.length, packet.getLength());
+                byte[] received = new byte[buffer.buffer().remaining()];
+                buffer.buffer().get(received);
+                assertArrayEquals(payload, received);
+            }
+        }
+
+        buffer.reset();
+        assertEquals(offset, packet.getOffset());
+        assertEquals(256, packet.getLength());
+        buffer.release();
+        assertEquals(2, pool.available());
+    }
+
+    @Test
+    void directBufferReceivesThroughChannel() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        ReceiveBufferPool pool = ReceiveBufferPool.direct(1, 256);
+        ReceiveBufferPool.PooledBuffer buffer = pool.acquire();
+
+        try (ProxyDatagramChannel channel = ProxyDatagramChannel.open(new ConcurrentMapProxyAddressCache(), null, null)
+                 .bind(new InetSocketAddress(loopback, 0));
+             DatagramSocket balancer = new DatagramSocket(new InetSocketAddress(loopback, 0))) {
+            InetSocketAddress address = (InetSocketAddress) channel.getLocalAddress();
+            byte[] payload = "hello".getBytes(StandardCharsets.UTF_8);
+            byte[] datagram = proxiedPacket(address, payload);
+
+            for (int i = 0; i < 2; i++) {
+                balancer.send(new DatagramPacket(datagram, datagram.length, address));
+                assertEquals(REAL_CLIENT, channel.receive(buffer));
+                assertEquals(payload.length, buffer.buffer().remaining());
+            }
+        }
+        buffer.release();
+    }
+}